@@ -0,0 +1,106 @@
+package atm_package;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Clock;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Hot paths of an ATM session, on a private account and on one account shared by all threads.
+// Run with -prof gc to see allocation rate next to ops/sec.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ATMBenchmark {
+    // Large enough that withdrawals never run out within one iteration
+    private static final Money LARGE_AMOUNT = Money.of(1_000_000_000);
+    private static final Money TEN = Money.of(10);
+
+    // Account and limits used by every thread, to measure contention
+    @State(Scope.Benchmark)
+    public static class SharedAccount {
+        BankAccount account;
+        WithdrawalLimitService limits;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            account = new BankAccount("shared", LARGE_AMOUNT);
+            limits = new WithdrawalLimitService(LARGE_AMOUNT, Clock.systemDefaultZone());
+        }
+    }
+
+    // One ATM session per thread working on the shared account
+    @State(Scope.Thread)
+    public static class SharedSession {
+        ATM atm;
+
+        @Setup(Level.Iteration)
+        public void setUp(SharedAccount shared) {
+            atm = newATM(shared.account, shared.limits);
+        }
+    }
+
+    // One ATM session per thread working on its own account
+    @State(Scope.Thread)
+    public static class PrivateSession {
+        BankAccount account;
+        ATM atm;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            account = new BankAccount("private-" + Thread.currentThread().getId(), LARGE_AMOUNT);
+            atm = newATM(account, new WithdrawalLimitService(LARGE_AMOUNT, Clock.systemDefaultZone()));
+            for (int i = 0; i < TransactionHistory.DEFAULT_CAPACITY; i++) {
+                account.deposit(TEN);
+            }
+        }
+    }
+
+    private static ATM newATM(BankAccount account, WithdrawalLimitService limits) {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        return new ATM(account, new Scanner(""), discard, limits);
+    }
+
+    @Benchmark
+    public boolean withdraw(PrivateSession session) {
+        return session.atm.withdraw(TEN);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean withdrawContended(SharedSession session) {
+        return session.atm.withdraw(TEN);
+    }
+
+    @Benchmark
+    public boolean deposit(PrivateSession session) {
+        return session.account.deposit(TEN);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean depositContended(SharedAccount shared) {
+        return shared.account.deposit(TEN);
+    }
+
+    @Benchmark
+    public List<Transaction> lastTransactions(PrivateSession session) {
+        return session.account.getLastTransactions(5);
+    }
+}
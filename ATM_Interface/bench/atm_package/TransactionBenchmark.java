@@ -0,0 +1,52 @@
+package atm_package;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Creating and rendering Transaction objects, as done for every mini-statement line.
+// Transaction caches its rendered line, so the render benchmarks format into a reused builder
+// (or build a fresh Transaction) to measure the formatting rather than the cache.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionBenchmark {
+    private final long timestamp = System.currentTimeMillis();
+    private final StringBuilder line = new StringBuilder(48);
+
+    @Benchmark
+    public Transaction create() {
+        return new Transaction(TransactionType.DEPOSIT, 1_000, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public StringBuilder render() {
+        line.setLength(0);
+        return Transaction.appendTo(line, timestamp, TransactionType.WITHDRAWAL, 12_345);
+    }
+
+    // First toString() of a new transaction: formatting plus the String it is cached as
+    @Benchmark
+    public String renderNew() {
+        return new Transaction(TransactionType.WITHDRAWAL, 12_345, timestamp).toString();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public StringBuilder renderContended() {
+        line.setLength(0);
+        return Transaction.appendTo(line, timestamp, TransactionType.WITHDRAWAL, 12_345);
+    }
+}
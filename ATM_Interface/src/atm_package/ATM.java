@@ -1,72 +1,134 @@
 package atm_package;
 
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ATM {
+    private static final int MINI_STATEMENT_SIZE = 5;
+    private static final Money SMALLEST_NOTE = Money.of(10);
+    private static final LongAdder WITHDRAWALS_OK = Metrics.shared().counter("atm.withdraw.ok");
+    private static final LongAdder DECLINED_INVALID = Metrics.shared().counter("atm.withdraw.declined.invalid");
+    private static final LongAdder DECLINED_FUNDS = Metrics.shared().counter("atm.withdraw.declined.funds");
+    private static final LongAdder DECLINED_NOTES = Metrics.shared().counter("atm.withdraw.declined.notes");
+    private static final LongAdder DECLINED_LIMIT = Metrics.shared().counter("atm.withdraw.declined.limit");
+    private static final LongAdder FAILED_JOURNAL = Metrics.shared().counter("atm.failed.journal");
+
     private BankAccount userAccount;
     private Scanner scanner;
-    private double dailyWithdrawalLimit;
+    private PrintStream out;
+    private WithdrawalLimitService withdrawalLimits;
     private long lastActivityTime;
+    private TimingWheel.Timeout sessionTimeout;
+    // Reused buffers so printing a mini-statement does not allocate per call
+    private final long[] statementTimestamps = new long[MINI_STATEMENT_SIZE];
+    private final byte[] statementTypes = new byte[MINI_STATEMENT_SIZE];
+    private final long[] statementAmounts = new long[MINI_STATEMENT_SIZE];
+    private final StringBuilder statementLine = new StringBuilder(64);
+    private byte[] statementBytes = new byte[64];
 
     public ATM(BankAccount account) {
+        this(account, new Scanner(System.in), System.out);
+    }
+
+    // Creates a session that talks to the given input and output, e.g. a network connection
+    public ATM(BankAccount account, Scanner scanner, PrintStream out) {
+        this(account, scanner, out, WithdrawalLimitService.shared());
+    }
+
+    public ATM(BankAccount account, Scanner scanner, PrintStream out, WithdrawalLimitService withdrawalLimits) {
         this.userAccount = account;
-        this.scanner = new Scanner(System.in);
-        this.dailyWithdrawalLimit = 5000.0; // Example daily withdrawal limit
+        this.scanner = scanner;
+        this.out = out;
+        this.withdrawalLimits = withdrawalLimits; // Daily limit is per account, shared across sessions
         this.lastActivityTime = System.currentTimeMillis();
     }
 
     // Method to withdraw money from the ATM
-    public boolean withdraw(double amount) {
+    public boolean withdraw(Money amount) {
         try {
-            if (amount <= 0) {
-                System.out.println("Invalid amount. Please enter a positive value.");
+            if (!amount.isPositive()) {
+                DECLINED_INVALID.increment();
+                out.println("Invalid amount. Please enter a positive value.");
                 return false;
             }
-            if (amount > userAccount.getBalance()) {
-                System.out.println("Withdrawal failed. Insufficient funds.");
+            if (amount.compareTo(userAccount.getBalance()) > 0) {
+                DECLINED_FUNDS.increment();
+                out.println("Withdrawal failed. Insufficient funds.");
                 return false;
             }
-            if (amount > dailyWithdrawalLimit) {
-                System.out.println("Withdrawal amount exceeds daily limit.");
+
+            // Check if withdrawal amount is a multiple of 10 (for ATM notes)
+            if (!amount.isMultipleOf(SMALLEST_NOTE)) {
+                DECLINED_NOTES.increment();
+                out.println("Withdrawal amount must be in multiples of 10.");
                 return false;
             }
-            
-            // Check if withdrawal amount is a multiple of 10 (for ATM notes)
-            if (amount % 10 != 0) {
-                System.out.println("Withdrawal amount must be in multiples of 10.");
+
+            // Reserve against the daily limit first and give it back if the debit fails,
+            // so concurrent sessions can never withdraw more than the limit together
+            String accountId = userAccount.getAccountId();
+            long cents = amount.getCents();
+            if (!withdrawalLimits.tryReserve(accountId, cents)) {
+                DECLINED_LIMIT.increment();
+                out.println("Withdrawal amount exceeds daily limit.");
                 return false;
             }
 
-            userAccount.withdraw(amount);
-            dailyWithdrawalLimit -= amount;
-            System.out.println("Withdrawal successful. Remaining balance: " + userAccount.getBalance());
+            // The account re-checks the balance atomically in case another session got there first
+            boolean withdrawn;
+            try {
+                withdrawn = userAccount.withdraw(amount);
+            } catch (UncheckedIOException e) {
+                withdrawalLimits.release(accountId, cents);
+                reportJournalFailure(e);
+                return false;
+            }
+            if (!withdrawn) {
+                withdrawalLimits.release(accountId, cents);
+                DECLINED_FUNDS.increment();
+                out.println("Withdrawal failed. Insufficient funds.");
+                return false;
+            }
+            WITHDRAWALS_OK.increment();
+            out.println("Withdrawal successful. Remaining balance: " + userAccount.getBalance());
             return true;
         } catch (InputMismatchException e) {
-            System.out.println("Invalid input format. Please enter a valid number.");
+            out.println("Invalid input format. Please enter a valid number.");
             scanner.nextLine(); // Clear invalid input
             return false;
         }
     }
 
     // Method to deposit money into the ATM
-    public void deposit(double amount) {
+    public void deposit(Money amount) {
         try {
-            if (amount <= 0) {
-                System.out.println("Invalid amount. Please enter a positive value.");
+            if (!amount.isPositive()) {
+                out.println("Invalid amount. Please enter a positive value.");
                 return;
             }
             userAccount.deposit(amount);
-            System.out.println("Deposit successful. Updated balance: " + userAccount.getBalance());
+            out.println("Deposit successful. Updated balance: " + userAccount.getBalance());
+        } catch (UncheckedIOException e) {
+            reportJournalFailure(e);
         } catch (InputMismatchException e) {
-            System.out.println("Invalid input format. Please enter a valid number.");
+            out.println("Invalid input format. Please enter a valid number.");
             scanner.nextLine(); // Clear invalid input
         }
     }
 
+    // The operation was not recorded, so it did not happen; tell the user here rather than on the server console
+    private void reportJournalFailure(UncheckedIOException e) {
+        FAILED_JOURNAL.increment();
+        out.println("Transaction failed. It could not be recorded, and your balance is unchanged. Please try again later.");
+        System.out.println(e.getMessage() + ": " + e.getCause().getMessage()); // For the operator
+    }
+
     // Method to check balance in the ATM
     public void checkBalance() {
-        System.out.println("Current balance: " + userAccount.getBalance());
+        out.println("Current balance: " + userAccount.getBalance());
     }
 
     // Method to handle API interactions and user inputs
@@ -77,11 +139,11 @@ public class ATM {
 
             switch (choice) {
                 case 1:
-                    double withdrawAmount = getUserInput("Enter amount to withdraw: ");
+                    Money withdrawAmount = getUserInput("Enter amount to withdraw: ");
                     withdraw(withdrawAmount);
                     break;
                 case 2:
-                    double depositAmount = getUserInput("Enter amount to deposit: ");
+                    Money depositAmount = getUserInput("Enter amount to deposit: ");
                     deposit(depositAmount);
                     break;
                 case 3:
@@ -94,10 +156,10 @@ public class ATM {
                     changePIN();
                     break;
                 case 6:
-                    System.out.println("Exiting ATM. Thank you!");
+                    out.println("Exiting ATM. Thank you!");
                     return;
                 default:
-                    System.out.println("Invalid choice. Please enter a valid option.");
+                    out.println("Invalid choice. Please enter a valid option.");
             }
 
             // Update last activity time after each user interaction
@@ -107,36 +169,36 @@ public class ATM {
 
     // Helper method to display the ATM menu
     private void displayMenu() {
-        System.out.println("\nATM Interface\n");
-        System.out.println("1. Withdraw");
-        System.out.println("2. Deposit");
-        System.out.println("3. Check Balance");
-        System.out.println("4. Print Mini-Statement");
-        System.out.println("5. Change PIN");
-        System.out.println("6. Exit");
+        out.println("\nATM Interface\n");
+        out.println("1. Withdraw");
+        out.println("2. Deposit");
+        out.println("3. Check Balance");
+        out.println("4. Print Mini-Statement");
+        out.println("5. Change PIN");
+        out.println("6. Exit");
     }
 
     // Helper method to get user choice
     private int getUserChoice() {
         while (true) {
             try {
-                System.out.print("\nEnter your choice: ");
+                out.print("\nEnter your choice: ");
                 return scanner.nextInt();
             } catch (InputMismatchException e) {
-                System.out.println("Invalid input. Please enter a number.");
+                out.println("Invalid input. Please enter a number.");
                 scanner.nextLine(); // Clear invalid input
             }
         }
     }
 
     // Helper method to get user input amount
-    private double getUserInput(String message) {
+    private Money getUserInput(String message) {
         while (true) {
             try {
-                System.out.print(message);
-                return scanner.nextDouble();
-            } catch (InputMismatchException e) {
-                System.out.println("Invalid input. Please enter a valid number.");
+                out.print(message);
+                return Money.parse(scanner.next()); // Parsed exactly, no binary rounding
+            } catch (NumberFormatException e) {
+                out.println("Invalid input. Please enter a valid amount with at most two decimals.");
                 scanner.nextLine(); // Clear invalid input
             }
         }
@@ -144,35 +206,61 @@ public class ATM {
 
     // Method to print mini-statement (last 5 transactions)
     private void printMiniStatement() {
-        System.out.println("\nMini-Statement");
-        System.out.println("------------------");
-        // Assuming BankAccount maintains a list of transactions
-        for (Transaction transaction : userAccount.getLastTransactions(5)) {
-            System.out.println(transaction);
+        out.println("\nMini-Statement");
+        out.println("------------------");
+        int count = userAccount.copyLastTransactions(MINI_STATEMENT_SIZE, statementTimestamps,
+                statementTypes, statementAmounts);
+        for (int i = 0; i < count; i++) {
+            statementLine.setLength(0);
+            Transaction.appendTo(statementLine, statementTimestamps[i],
+                    TransactionType.fromOrdinal(statementTypes[i]), statementAmounts[i]);
+            writeStatementLine();
+        }
+        out.println("------------------");
+    }
+
+    // PrintStream turns any CharSequence into a String first, even through append(). Statement lines
+    // are ASCII, so their characters are copied into a reused byte array and written in one call.
+    private void writeStatementLine() {
+        statementLine.append(System.lineSeparator());
+        int length = statementLine.length();
+        if (length > statementBytes.length) {
+            statementBytes = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            statementBytes[i] = (byte) statementLine.charAt(i);
         }
-        System.out.println("------------------");
+        out.write(statementBytes, 0, length);
     }
 
     // Method to change PIN (dummy implementation for demonstration)
     private void changePIN() {
-        System.out.println("\nChange PIN");
-        System.out.println("Enter current PIN:");
+        out.println("\nChange PIN");
+        out.println("Enter current PIN:");
         // Dummy implementation for demonstration
         String currentPIN = scanner.next();
-        System.out.println("Enter new PIN:");
+        out.println("Enter new PIN:");
         String newPIN = scanner.next();
-        System.out.println("Confirm new PIN:");
+        out.println("Confirm new PIN:");
         String confirmPIN = scanner.next();
         if (newPIN.equals(confirmPIN)) {
-            System.out.println("PIN successfully changed.");
+            out.println("PIN successfully changed.");
         } else {
-            System.out.println("PIN change failed. PINs do not match.");
+            out.println("PIN change failed. PINs do not match.");
         }
     }
 
-    // Method to update last activity time
+    // Method to update last activity time and push back the session timeout
     private void updateLastActivityTime() {
         this.lastActivityTime = System.currentTimeMillis();
+        if (sessionTimeout != null) {
+            sessionTimeout.touch();
+        }
+    }
+
+    // Attaches the inactivity timeout that this session re-arms on every interaction
+    void setSessionTimeout(TimingWheel.Timeout sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
     }
 
     // Getter for last activity time (for session timeout)
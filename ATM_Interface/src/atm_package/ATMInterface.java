@@ -1,20 +1,76 @@
 package atm_package;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
 public class ATMInterface {
+    private static final String JOURNAL_FILE = "atm_journal.bin";
+    private static final String METRICS_FILE = "atm_metrics.txt";
+    private static final String SNAPSHOT_FILE = "atm_snapshot.bin";
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 60000;
+    private static final long SESSION_TIMEOUT_MILLIS = 180000; // 3 minutes inactivity
+    private static final int DEFAULT_PORT = 5050;
+
+    // Run with "--server [port]" to serve sessions over TCP instead of the console
     public static void main(String[] args) {
         System.out.println("Welcome to the ATM");
 
-        // Initialize a bank account with an initial balance
-        BankAccount account = new BankAccount(1000); // Initial balance for demonstration
-        ATM atm = new ATM(account);
+        // Rebuild account state from the latest snapshot and the journal written since
+        TransactionJournal journal;
+        AccountLedger ledger;
+        SnapshotCompactor compactor;
+        try {
+            journal = new TransactionJournal(Paths.get(JOURNAL_FILE));
+            ledger = new AccountLedger(journal);
+            long snapshotOffset = ledger.recover(Paths.get(SNAPSHOT_FILE));
+            compactor = new SnapshotCompactor(journal, Paths.get(SNAPSHOT_FILE), snapshotOffset,
+                    SNAPSHOT_INTERVAL_MILLIS);
+        } catch (IOException e) {
+            System.out.println("Could not open transaction journal: " + e.getMessage());
+            return;
+        }
+        // Metrics can be watched live over JMX and are written out as text on exit
+        MetricsExporter.register(Metrics.shared(), "atm_package:type=Metrics");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                compactor.close();
+            } catch (IOException e) {
+                System.out.println("Could not write account snapshot: " + e.getMessage());
+            }
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.out.println("Could not close transaction journal: " + e.getMessage());
+            }
+            try {
+                Files.writeString(Paths.get(METRICS_FILE), Metrics.shared().dump());
+            } catch (IOException e) {
+                System.out.println("Could not write metrics: " + e.getMessage());
+            }
+        }));
+
+        // Initialize a bank account with an initial balance in the shared ledger
+        BankAccount account = ledger.openAccount("1001", Money.of(1000)); // Initial balance for demonstration
 
-        // Main loop for the ATM interface
-        while (true) {
-            // Check session timeout (3 minutes inactivity)
-            if (System.currentTimeMillis() - atm.getLastActivityTime() > 180000) {
-                System.out.println("Session timed out due to inactivity. Exiting ATM.");
-                break;
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            try (ATMSessionServer server = new ATMSessionServer(ledger, port, SESSION_TIMEOUT_MILLIS)) {
+                System.out.println("ATM session server listening on port " + server.getPort());
+                server.serve();
+            } catch (IOException e) {
+                System.out.println("Could not start ATM session server: " + e.getMessage());
             }
+            return;
+        }
+
+        ATM atm = new ATM(account);
+        // The timer fires even while the session is blocked waiting for input
+        try (SessionTimer sessionTimer = new SessionTimer(SESSION_TIMEOUT_MILLIS)) {
+            sessionTimer.watch(atm, () -> {
+                System.out.println("\nSession timed out due to inactivity. Exiting ATM.");
+                System.exit(0);
+            });
             atm.handleAPIs();
         }
     }
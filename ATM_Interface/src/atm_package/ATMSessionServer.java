@@ -0,0 +1,146 @@
+package atm_package;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Serves ATM sessions over a line-based TCP protocol on the local machine.
+// Each connection gets its own ATM running on its own thread: a virtual thread when the runtime is
+// Java 21 or later, otherwise a platform thread with a small stack (the build targets Java 17).
+public class ATMSessionServer implements AutoCloseable {
+    private static final LongAdder SESSIONS_OPENED = Metrics.shared().counter("session.opened");
+    private static final LongAdder SESSIONS_CLOSED = Metrics.shared().counter("session.closed");
+    private static final LongAdder UNKNOWN_ACCOUNTS = Metrics.shared().counter("session.unknownAccount");
+    private static final LatencyHistogram SESSION_DURATION = Metrics.shared().histogram("session.duration");
+
+    private final AccountLedger ledger;
+    private final SessionTimer sessionTimer;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    public ATMSessionServer(AccountLedger ledger, int port, long timeoutMillis) throws IOException {
+        this.ledger = ledger;
+        this.sessionTimer = new SessionTimer(timeoutMillis);
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.sessions = newSessionExecutor();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    // Accepts connections until the server is closed
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> runSession(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("Error accepting ATM connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void runSession(Socket socket) {
+        long start = System.nanoTime();
+        activeSessions.incrementAndGet();
+        SESSIONS_OPENED.increment();
+        TimingWheel.Timeout timeout = null;
+        try (socket) {
+            Scanner in = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
+            PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            // Armed before the first read, so a client that never sends an account number is dropped too
+            timeout = sessionTimer.watch(() -> expire(socket, out));
+            out.println("Welcome to the ATM");
+            out.print("Enter account number: ");
+            BankAccount account = ledger.getAccount(in.next());
+            if (account == null) {
+                UNKNOWN_ACCOUNTS.increment();
+                out.println("Unknown account.");
+                return;
+            }
+            ATM atm = new ATM(account, in, out);
+            sessionTimer.attach(atm, timeout);
+            atm.handleAPIs();
+        } catch (NoSuchElementException | IllegalStateException e) {
+            // Client disconnected or the session timed out while waiting for input
+        } catch (IOException e) {
+            System.out.println("ATM session error: " + e.getMessage());
+        } finally {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            activeSessions.decrementAndGet();
+            SESSIONS_CLOSED.increment();
+            SESSION_DURATION.recordSince(start);
+        }
+    }
+
+    // Runs on the timing wheel's only thread, which must never block: writing to a client that stopped
+    // reading can stall once its socket buffer is full, and then no session would ever time out again.
+    // The goodbye is written from a session thread instead; if that write is still stuck one timeout
+    // later, the wheel closes the socket without writing.
+    private void expire(Socket socket, PrintStream out) {
+        TimingWheel.Timeout backstop = sessionTimer.watch(() -> closeQuietly(socket));
+        try {
+            sessions.execute(() -> {
+                out.println("\nSession timed out due to inactivity. Exiting ATM.");
+                closeQuietly(socket);
+                backstop.cancel();
+            });
+        } catch (RejectedExecutionException e) {
+            closeQuietly(socket); // The server is shutting down
+            backstop.cancel();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    // Uses virtual threads when the runtime has them (Java 21+), otherwise small-stack platform threads.
+    // Looked up by reflection because the build targets Java 17, where every session gets a platform
+    // thread; the fallback is reported at startup so that is never a surprise.
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads need Java 21 or later (running on Java "
+                    + Runtime.version().feature() + "); each ATM session uses a platform thread");
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(null, r, "atm-session-" + counter.incrementAndGet(), 256 * 1024);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+        sessionTimer.close();
+    }
+}
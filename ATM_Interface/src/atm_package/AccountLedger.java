@@ -0,0 +1,124 @@
+package atm_package;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Shared store of accounts so many ATM sessions can run in one JVM
+public class AccountLedger {
+    private final ConcurrentMap<String, BankAccount> accounts = new ConcurrentHashMap<>();
+    private final TransactionJournal journal;
+    private final WithdrawalLimitService withdrawalLimits;
+
+    public AccountLedger() {
+        this(null);
+    }
+
+    // Accounts opened by this ledger write every operation to the given journal (may be null)
+    public AccountLedger(TransactionJournal journal) {
+        this(journal, WithdrawalLimitService.shared());
+    }
+
+    // Recovery also rebuilds today's withdrawal usage in the given service
+    public AccountLedger(TransactionJournal journal, WithdrawalLimitService withdrawalLimits) {
+        this.journal = journal;
+        this.withdrawalLimits = withdrawalLimits;
+    }
+
+    // Opens the account if it does not exist yet, otherwise returns the existing one.
+    // The open is journaled before the account is published, so no other session can journal a
+    // deposit or withdrawal for it ahead of the open record.
+    public BankAccount openAccount(String accountId, Money initialBalance) {
+        BankAccount existing = accounts.get(accountId);
+        if (existing != null) {
+            return existing;
+        }
+        long initialCents = initialBalance.getCents();
+        return accounts.computeIfAbsent(accountId, id -> {
+            if (journal != null) {
+                try {
+                    journal.append(id, TransactionJournal.RECORD_OPEN, System.currentTimeMillis(), initialCents);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not record new account " + id, e);
+                }
+            }
+            return new BankAccount(id, initialCents, journal);
+        });
+    }
+
+    public BankAccount getAccount(String accountId) {
+        return accounts.get(accountId);
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    // Rebuilds all accounts by replaying the journal; call once at startup before opening sessions
+    public void recover() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        replay(0);
+    }
+
+    // Like recover(), but starts from the account snapshot if there is a usable one and replays only
+    // the journal written after it. Returns the journal position the snapshot was taken at, or 0 if
+    // none was used, for the SnapshotCompactor to continue from.
+    public long recover(Path snapshotFile) throws IOException {
+        if (journal == null) {
+            return 0;
+        }
+        long snapshotOffset = 0;
+        if (Files.exists(snapshotFile)) {
+            try {
+                snapshotOffset = AccountSnapshot.read(snapshotFile, (accountId, balanceCents, usageDay, usageCents,
+                        entries, timestamps, types, amountsCents) -> {
+                    withdrawalLimits.restoreUsage(accountId, usageDay, usageCents);
+                    TransactionHistory history = new TransactionHistory();
+                    for (int i = 0; i < entries; i++) {
+                        history.add(timestamps[i], TransactionType.fromOrdinal(types[i]), amountsCents[i]);
+                    }
+                    accounts.put(accountId, new BankAccount(accountId, balanceCents, history, journal));
+                });
+                if (snapshotOffset > journal.size()) {
+                    throw new IOException("Snapshot is newer than the journal");
+                }
+            } catch (IOException e) {
+                System.out.println("Ignoring account snapshot, replaying the whole journal: " + e.getMessage());
+                accounts.clear();
+                withdrawalLimits.clearUsage();
+                snapshotOffset = 0;
+            }
+        }
+        replay(snapshotOffset);
+        return snapshotOffset;
+    }
+
+    // Journals written before opens were recorded ahead of publishing can have an account's first
+    // deposit or withdrawal before its open record; the open then adds its balance to that account
+    private void replay(long fromPosition) throws IOException {
+        Set<String> unopened = new HashSet<>(); // created by a record that came before their open
+        journal.replay(fromPosition, (accountId, type, timestamp, amountCents) -> {
+            if (type == TransactionJournal.RECORD_OPEN) {
+                BankAccount existing = accounts.putIfAbsent(accountId, new BankAccount(accountId, amountCents, journal));
+                if (existing != null && unopened.remove(accountId)) {
+                    existing.applyRecovered(type, timestamp, amountCents);
+                }
+            } else {
+                accounts.computeIfAbsent(accountId, id -> {
+                    unopened.add(id);
+                    return new BankAccount(id, 0, journal);
+                }).applyRecovered(type, timestamp, amountCents);
+                if (type == TransactionJournal.RECORD_WITHDRAWAL) {
+                    withdrawalLimits.recordRecovered(accountId, timestamp, amountCents);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,221 @@
+package atm_package;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Binary snapshot of every account's balance and recent history as of a position in the TransactionJournal.
+// On restart the snapshot is loaded and only the journal after its offset is replayed. The file is
+//   header:   magic(4) journalOffset(8)
+//   accounts: idLength(2) id balance(8) usageDay(8) usageCents(8) entries(2)
+//             entries x [timestamp(8) type(1) amount(8)], history oldest first
+//   trailer:  accountCount(4) crc(4)
+// usageDay is the latest epoch day (default time zone) the account withdrew anything, or NO_USAGE, and
+// usageCents is how much it withdrew that day, so the daily withdrawal limit survives a restart.
+// The CRC32 covers every byte before it: header, account records and account count.
+public final class AccountSnapshot {
+    private static final int MAGIC = 0x41534E32; // "ASN2"
+    private static final int HEADER_SIZE = 4 + 8;
+    private static final int TRAILER_SIZE = 4 + 4;
+    private static final int FIXED_ACCOUNT_SIZE = 2 + 8 + 8 + 8 + 2;
+    private static final int ENTRY_SIZE = 8 + 1 + 8;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    // usageDay of an account that has never withdrawn anything
+    static final long NO_USAGE = Long.MIN_VALUE;
+
+    private AccountSnapshot() {
+    }
+
+    // Callback used when reading a snapshot; history entries are oldest first and the arrays are reused
+    public interface AccountHandler {
+        void onAccount(String accountId, long balanceCents, long usageDay, long usageCents, int entries,
+                long[] timestamps, byte[] types, long[] amountsCents) throws IOException;
+    }
+
+    // Reads every account in the snapshot and returns the journal position it was taken at.
+    // The file is memory-mapped a window at a time. The checksum is verified at the end, so if this
+    // throws, any accounts already passed to the handler must be discarded.
+    public static long read(Path file, AccountHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Snapshot is truncated");
+            }
+            CRC32 crc = new CRC32();
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not an account snapshot");
+            }
+            long journalOffset = header.getLong(4);
+            crc.update(header);
+
+            long end = size - TRAILER_SIZE;
+            long position = HEADER_SIZE;
+            Records records = new Records();
+            while (position < end) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(end - position, MAP_WINDOW));
+                int consumed = records.read(mapped, handler);
+                if (consumed == 0) {
+                    throw new IOException("Snapshot is corrupt at offset " + position);
+                }
+                crc.update(mapped.limit(consumed));
+                position += consumed;
+            }
+
+            ByteBuffer trailer = readFully(channel, end, TRAILER_SIZE);
+            crc.update(trailer.duplicate().limit(4));
+            if (trailer.getInt(0) != records.accounts || trailer.getInt(4) != (int) crc.getValue()) {
+                throw new IOException("Snapshot checksum does not match");
+            }
+            return journalOffset;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Snapshot is truncated");
+            }
+        }
+        return buf.flip();
+    }
+
+    // Decodes account records, reusing one set of history arrays for all of them
+    private static final class Records {
+        private long[] timestamps = new long[TransactionHistory.DEFAULT_CAPACITY];
+        private byte[] types = new byte[TransactionHistory.DEFAULT_CAPACITY];
+        private long[] amounts = new long[TransactionHistory.DEFAULT_CAPACITY];
+        private int accounts;
+
+        // Decodes the complete records in the buffer and returns the number of bytes consumed
+        int read(ByteBuffer buf, AccountHandler handler) throws IOException {
+            int start = 0;
+            while (buf.limit() - start >= 2) {
+                int idLength = buf.getShort(start) & 0xFFFF;
+                if (buf.limit() - start < FIXED_ACCOUNT_SIZE + idLength) {
+                    break;
+                }
+                int offset = start + 2 + idLength;
+                long balance = buf.getLong(offset);
+                long usageDay = buf.getLong(offset + 8);
+                long usageCents = buf.getLong(offset + 16);
+                int entries = buf.getShort(offset + 24) & 0xFFFF;
+                int recordLength = FIXED_ACCOUNT_SIZE + idLength + entries * ENTRY_SIZE;
+                if (buf.limit() - start < recordLength) {
+                    break;
+                }
+                if (entries > timestamps.length) {
+                    timestamps = Arrays.copyOf(timestamps, entries);
+                    types = Arrays.copyOf(types, entries);
+                    amounts = Arrays.copyOf(amounts, entries);
+                }
+                offset += FIXED_ACCOUNT_SIZE - 2;
+                for (int i = 0; i < entries; i++, offset += ENTRY_SIZE) {
+                    timestamps[i] = buf.getLong(offset);
+                    types[i] = buf.get(offset + 8);
+                    amounts[i] = buf.getLong(offset + 9);
+                }
+                byte[] id = new byte[idLength];
+                buf.get(start + 2, id);
+                handler.onAccount(new String(id, StandardCharsets.UTF_8), balance, usageDay, usageCents, entries,
+                        timestamps, types, amounts);
+                accounts++;
+                start += recordLength;
+            }
+            return start;
+        }
+    }
+
+    // Writes a snapshot to a temporary file next to the target; commit() syncs it and moves it over
+    // the target atomically, so readers only ever see the previous snapshot or the complete new one
+    static final class Writer implements Closeable {
+        private final Path file;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+        private final CRC32 crc = new CRC32();
+        private int accounts;
+        private boolean committed;
+
+        Writer(Path file, long journalOffset) throws IOException {
+            this.file = file;
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putLong(journalOffset);
+        }
+
+        // Adds one account whose history is the first 'entries' elements of the arrays, oldest first
+        void add(String accountId, long balanceCents, long usageDay, long usageCents, int entries,
+                long[] timestamps, byte[] types, long[] amountsCents) throws IOException {
+            byte[] id = accountId.getBytes(StandardCharsets.UTF_8);
+            if (id.length > 0xFFFF || entries > 0xFFFF) {
+                throw new IllegalArgumentException("Account " + accountId + " does not fit in a snapshot record");
+            }
+            int recordLength = FIXED_ACCOUNT_SIZE + id.length + entries * ENTRY_SIZE;
+            if (buffer.remaining() < recordLength) {
+                flushBuffer();
+            }
+            ByteBuffer out = buffer.remaining() >= recordLength ? buffer : ByteBuffer.allocate(recordLength);
+            out.putShort((short) id.length).put(id).putLong(balanceCents).putLong(usageDay).putLong(usageCents)
+                    .putShort((short) entries);
+            for (int i = 0; i < entries; i++) {
+                out.putLong(timestamps[i]).put(types[i]).putLong(amountsCents[i]);
+            }
+            if (out != buffer) {
+                write(out.flip());
+            }
+            accounts++;
+        }
+
+        void commit() throws IOException {
+            if (buffer.remaining() < TRAILER_SIZE) {
+                flushBuffer();
+            }
+            buffer.putInt(accounts);
+            crc.update(buffer.duplicate().flip()); // bytes already flushed are in the checksum
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        private void flushBuffer() throws IOException {
+            write(buffer.flip());
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer buf) throws IOException {
+            crc.update(buf.duplicate());
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        }
+
+        // Discards the temporary file unless the snapshot was committed
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
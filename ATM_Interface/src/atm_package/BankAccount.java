@@ -1,42 +1,148 @@
 package atm_package;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class BankAccount {
-    private double balance;
-    private List<Transaction> transactions;
+    private static final LongAdder DEPOSITS = Metrics.shared().counter("account.deposits");
+    private static final LongAdder WITHDRAWALS = Metrics.shared().counter("account.withdrawals");
+    private static final LongAdder REJECTED = Metrics.shared().counter("account.rejected");
+    private static final LongAdder JOURNAL_FAILURES = Metrics.shared().counter("account.journal.failures");
+    // Includes waiting for the journal to make the operation durable
+    private static final LatencyHistogram DEPOSIT_LATENCY = Metrics.shared().histogram("account.deposit.latency");
+    private static final LatencyHistogram WITHDRAW_LATENCY = Metrics.shared().histogram("account.withdraw.latency");
 
-    public BankAccount(double initialBalance) {
-        this.balance = initialBalance;
-        this.transactions = new ArrayList<>();
+    private final String accountId;
+    // Balance is kept in cents so concurrent updates can be applied with a single CAS
+    private final AtomicLong balanceCents;
+    private final TransactionHistory history;
+    private final TransactionJournal journal;
+
+    public BankAccount(Money initialBalance) {
+        this("default", initialBalance);
+    }
+
+    public BankAccount(String accountId, Money initialBalance) {
+        this(accountId, initialBalance.getCents(), null);
+    }
+
+    BankAccount(String accountId, long initialBalanceCents, TransactionJournal journal) {
+        this(accountId, initialBalanceCents, new TransactionHistory(), journal);
     }
 
-    public double getBalance() {
-        return balance;
+    // Restores an account from a snapshot, with the history it had then
+    BankAccount(String accountId, long balanceCents, TransactionHistory history, TransactionJournal journal) {
+        this.accountId = accountId;
+        this.balanceCents = new AtomicLong(balanceCents);
+        this.history = history;
+        this.journal = journal;
     }
 
-    public void withdraw(double amount) {
-        if (amount > 0 && amount <= balance) {
-            balance -= amount;
-            transactions.add(new Transaction("Withdrawal", amount));
-        } else {
-            System.out.println("Withdrawal failed. Insufficient funds or invalid amount.");
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public Money getBalance() {
+        return Money.ofCents(balanceCents.get());
+    }
+
+    // Returns false if the amount is invalid or more than the balance. Throws UncheckedIOException,
+    // with the balance unchanged, if the withdrawal could not be journaled.
+    public boolean withdraw(Money amount) {
+        long start = System.nanoTime();
+        long cents = amount.getCents();
+        if (cents <= 0) {
+            REJECTED.increment();
+            return false;
+        }
+        // Retry until no other session changed the balance between our read and write
+        long current;
+        do {
+            current = balanceCents.get();
+            if (cents > current) {
+                REJECTED.increment();
+                return false;
+            }
+        } while (!balanceCents.compareAndSet(current, current - cents));
+        long timestamp = System.currentTimeMillis();
+        try {
+            writeJournal(TransactionJournal.RECORD_WITHDRAWAL, timestamp, cents);
+        } catch (UncheckedIOException e) {
+            balanceCents.addAndGet(cents); // Undo, the withdrawal was never made durable
+            throw e;
         }
+        history.add(timestamp, TransactionType.WITHDRAWAL, cents);
+        WITHDRAWALS.increment();
+        WITHDRAW_LATENCY.recordSince(start);
+        return true;
     }
 
-    public void deposit(double amount) {
-        if (amount > 0) {
-            balance += amount;
-            transactions.add(new Transaction("Deposit", amount));
-        } else {
-            System.out.println("Deposit failed. Invalid amount.");
+    // Returns false if the amount is invalid. Throws UncheckedIOException, with the balance unchanged,
+    // if the deposit could not be journaled.
+    public boolean deposit(Money amount) {
+        long start = System.nanoTime();
+        long cents = amount.getCents();
+        if (cents <= 0) {
+            REJECTED.increment();
+            return false;
         }
+        long timestamp = System.currentTimeMillis();
+        // Journal first: money that is not durable yet must not be available to a concurrent withdrawal
+        writeJournal(TransactionJournal.RECORD_DEPOSIT, timestamp, cents);
+        balanceCents.addAndGet(cents);
+        history.add(timestamp, TransactionType.DEPOSIT, cents);
+        DEPOSITS.increment();
+        DEPOSIT_LATENCY.recordSince(start);
+        return true;
     }
 
     // Method to get last 'count' transactions
     public List<Transaction> getLastTransactions(int count) {
-        int start = Math.max(transactions.size() - count, 0);
-        return transactions.subList(start, transactions.size());
+        int capacity = Math.min(count, history.capacity());
+        long[] timestamps = new long[capacity];
+        byte[] types = new byte[capacity];
+        long[] amounts = new long[capacity];
+        int n = history.copyLast(count, timestamps, types, amounts);
+        List<Transaction> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(new Transaction(TransactionType.fromOrdinal(types[i]), amounts[i], timestamps[i]));
+        }
+        return result;
+    }
+
+    // Copies the last 'count' transactions into caller-owned arrays, oldest first; returns how many were copied
+    public int copyLastTransactions(int count, long[] timestamps, byte[] types, long[] amountsCents) {
+        return history.copyLast(count, timestamps, types, amountsCents);
+    }
+
+    // Re-applies a journaled operation during startup recovery, without journaling it again.
+    // An open record adds the opening balance, for accounts that were created by an earlier record.
+    void applyRecovered(byte type, long timestamp, long cents) {
+        if (type == TransactionJournal.RECORD_OPEN) {
+            balanceCents.addAndGet(cents);
+        } else if (type == TransactionJournal.RECORD_WITHDRAWAL) {
+            balanceCents.addAndGet(-cents);
+            history.add(timestamp, TransactionType.WITHDRAWAL, cents);
+        } else if (type == TransactionJournal.RECORD_DEPOSIT) {
+            balanceCents.addAndGet(cents);
+            history.add(timestamp, TransactionType.DEPOSIT, cents);
+        }
+    }
+
+    // The caller reports the failure to its user, e.g. on the ATM session's stream
+    private void writeJournal(byte type, long timestamp, long cents) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.append(accountId, type, timestamp, cents);
+        } catch (IOException e) {
+            JOURNAL_FAILURES.increment();
+            throw new UncheckedIOException("Could not record transaction for account " + accountId, e);
+        }
     }
 }
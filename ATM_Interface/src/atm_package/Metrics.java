@@ -0,0 +1,62 @@
+package atm_package;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Registry of named counters and latency histograms.
+// Counters are striped LongAdders, so many sessions can bump the same counter without contending.
+// Look metrics up once (e.g. into a static field) and keep the reference; lookups are not free.
+public final class Metrics {
+    private static final Metrics SHARED = new Metrics();
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    // The registry used by the ATM classes
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    Map<String, LongAdder> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    // Method to render every metric as text, one per line, sorted by name
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LongAdder> entry : getCounters().entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            sb.append(entry.getKey())
+                    .append(" count=").append(histogram.getCount())
+                    .append(" mean=").append(micros((long) histogram.getMeanNanos()))
+                    .append(" p50=").append(micros(histogram.getPercentileNanos(50)))
+                    .append(" p99=").append(micros(histogram.getPercentileNanos(99)))
+                    .append(" p999=").append(micros(histogram.getPercentileNanos(99.9)))
+                    .append(" max=").append(micros(histogram.getMaxNanos()))
+                    .append("us\n");
+        }
+        return sb.toString();
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+}
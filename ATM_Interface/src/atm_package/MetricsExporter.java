@@ -0,0 +1,121 @@
+package atm_package;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ObjectName;
+
+// Exposes a metrics registry over local JMX (e.g. for jconsole).
+// Each counter is an attribute; each histogram has <name>.count, .p50Micros, .p99Micros and .maxMicros.
+// The dump() operation returns the same text as Metrics.dump().
+public final class MetricsExporter implements DynamicMBean {
+    private static final String[] HISTOGRAM_FIELDS = {".count", ".p50Micros", ".p99Micros", ".maxMicros"};
+
+    private final Metrics metrics;
+
+    private MetricsExporter(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Method to register the registry with the platform MBean server; failures are reported, not thrown
+    public static void register(Metrics metrics, String objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsExporter(metrics),
+                    new ObjectName(objectName));
+        } catch (JMException e) {
+            System.out.println("Could not register metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        LongAdder counter = metrics.getCounters().get(attribute);
+        if (counter != null) {
+            return counter.sum();
+        }
+        for (String field : HISTOGRAM_FIELDS) {
+            if (attribute.endsWith(field)) {
+                LatencyHistogram histogram = metrics.getHistograms()
+                        .get(attribute.substring(0, attribute.length() - field.length()));
+                if (histogram != null) {
+                    return histogramField(histogram, field);
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    private static long histogramField(LatencyHistogram histogram, String field) {
+        switch (field) {
+            case ".count":
+                return histogram.getCount();
+            case ".p50Micros":
+                return histogram.getPercentileNanos(50) / 1000;
+            case ".p99Micros":
+                return histogram.getPercentileNanos(99) / 1000;
+            default:
+                return histogram.getMaxNanos() / 1000;
+        }
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException e) {
+                // Left out, as the DynamicMBean contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        if (actionName.equals("dump")) {
+            return metrics.dump();
+        }
+        throw new UnsupportedOperationException(actionName);
+    }
+
+    // Rebuilt on every call, so metrics created after registration show up too
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : metrics.getCounters().keySet()) {
+            attributes.add(new MBeanAttributeInfo(name, "long", "Counter", true, false, false));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.getHistograms().entrySet()) {
+            for (String field : HISTOGRAM_FIELDS) {
+                attributes.add(new MBeanAttributeInfo(entry.getKey() + field, "long", "Latency histogram",
+                        true, false, false));
+            }
+        }
+        MBeanOperationInfo dump = new MBeanOperationInfo("dump", "All metrics as text",
+                new MBeanParameterInfo[0], "java.lang.String", MBeanOperationInfo.INFO);
+        return new MBeanInfo(getClass().getName(), "ATM metrics", attributes.toArray(new MBeanAttributeInfo[0]),
+                null, new MBeanOperationInfo[] {dump}, null);
+    }
+}
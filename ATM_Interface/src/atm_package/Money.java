@@ -0,0 +1,114 @@
+package atm_package;
+
+// Exact amount of money held as a whole number of cents
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(long wholeUnits) {
+        return ofCents(Math.multiplyExact(wholeUnits, 100L));
+    }
+
+    // Parses text such as "250", "-3.5" or "19.99" exactly; more than two decimals is an error
+    public static Money parse(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long cents = 0;
+        int digits = 0;
+        int decimals = -1; // -1 until the decimal point is seen
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && decimals < 0) {
+                    decimals = 0;
+                } else if (c >= '0' && c <= '9' && decimals < 2) {
+                    cents = Math.addExact(Math.multiplyExact(cents, 10L), c - '0');
+                    digits++;
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else {
+                    throw new NumberFormatException("Invalid amount: " + text);
+                }
+            }
+            if (digits == 0) {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+            for (int d = Math.max(decimals, 0); d < 2; d++) {
+                cents = Math.multiplyExact(cents, 10L);
+            }
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount too large: " + text);
+        }
+        return ofCents(negative ? -cents : cents);
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    // True if this amount is a whole multiple of the given amount, e.g. of the smallest note
+    public boolean isMultipleOf(Money unit) {
+        return cents % unit.cents == 0;
+    }
+
+    // Appends an amount of cents as "123.45" without creating a Money object
+    public static StringBuilder appendCents(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return appendCents(new StringBuilder(24), cents).toString();
+    }
+}
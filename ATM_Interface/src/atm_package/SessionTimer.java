@@ -0,0 +1,45 @@
+package atm_package;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Expires ATM sessions after a period of inactivity.
+// Backed by a timing wheel, so watching and re-arming stay O(1) with very many sessions.
+public class SessionTimer implements AutoCloseable {
+    private static final long TICK_MILLIS = 100;
+    private static final LongAdder TIMEOUTS = Metrics.shared().counter("session.timeouts");
+
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS);
+    private final long timeoutMillis;
+
+    public SessionTimer(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Runs onExpire once the ATM has been idle for the timeout.
+    // The ATM re-arms the returned timeout on every interaction; cancel it when the session ends.
+    public TimingWheel.Timeout watch(ATM atm, Runnable onExpire) {
+        TimingWheel.Timeout timeout = watch(onExpire);
+        atm.setSessionTimeout(timeout);
+        return timeout;
+    }
+
+    // Runs onExpire unless the returned timeout is touched within the timeout; for sessions that
+    // have no ATM yet (see attach)
+    public TimingWheel.Timeout watch(Runnable onExpire) {
+        return wheel.schedule(timeoutMillis, () -> {
+            TIMEOUTS.increment();
+            onExpire.run();
+        });
+    }
+
+    // Hands a timeout started with watch(Runnable) to the session's ATM, which re-arms it from now on
+    public void attach(ATM atm, TimingWheel.Timeout timeout) {
+        timeout.touch();
+        atm.setSessionTimeout(timeout);
+    }
+
+    @Override
+    public void close() {
+        wheel.close();
+    }
+}
@@ -0,0 +1,184 @@
+package atm_package;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps the AccountSnapshot close behind the TransactionJournal.
+// Each pass folds the journal records made durable since the last snapshot into per-account changes,
+// then streams the previous snapshot into a new one with those changes applied. It works from the
+// files alone, never from live accounts: a snapshot describes exactly the journal up to its offset,
+// so it is consistent without pausing sessions, and memory use grows with the changes, not the accounts.
+public class SnapshotCompactor implements Closeable {
+    private static final LongAdder SNAPSHOTS = Metrics.shared().counter("snapshot.written");
+    private static final LongAdder FAILURES = Metrics.shared().counter("snapshot.failures");
+    private static final LatencyHistogram SNAPSHOT_DURATION = Metrics.shared().histogram("snapshot.duration");
+
+    private final TransactionJournal journal;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private final ZoneId zone = ZoneId.systemDefault(); // for withdrawal days, as WithdrawalLimitService.shared()
+    private long snapshotOffset; // journal position the current snapshot file was taken at, guarded by this
+
+    // snapshotOffset is the position returned by AccountLedger.recover(Path); 0 means the file is not used
+    public SnapshotCompactor(TransactionJournal journal, Path file, long snapshotOffset, long intervalMillis) {
+        this.journal = journal;
+        this.file = file;
+        this.snapshotOffset = snapshotOffset;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-compactor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::compactQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Writes a new snapshot if the journal has grown since the last one; returns true if it did
+    public synchronized boolean compact() throws IOException {
+        long start = System.nanoTime();
+        long target = journal.getDurablePosition();
+        if (snapshotOffset > 0 && !Files.exists(file)) {
+            // The snapshot was removed; the changes since it alone would make a partial one, so start over
+            System.out.println("Account snapshot " + file + " is missing, rebuilding it from the whole journal");
+            snapshotOffset = 0;
+        }
+        if (target <= snapshotOffset) {
+            return false;
+        }
+        Map<String, AccountChanges> changes = new HashMap<>();
+        long reached = journal.scan(snapshotOffset, target, (accountId, type, timestamp, amountCents) ->
+                changes.computeIfAbsent(accountId, id -> new AccountChanges()).apply(type, timestamp, amountCents, zone));
+        if (reached == snapshotOffset) {
+            return false;
+        }
+
+        HistoryMerger merger = new HistoryMerger();
+        try (AccountSnapshot.Writer writer = new AccountSnapshot.Writer(file, reached)) {
+            if (snapshotOffset > 0) { // Throws rather than writing a partial snapshot if the file is gone
+                AccountSnapshot.read(file, (accountId, balanceCents, usageDay, usageCents, entries, timestamps, types,
+                        amountsCents) -> {
+                    AccountChanges changed = changes.remove(accountId);
+                    if (changed == null) {
+                        writer.add(accountId, balanceCents, usageDay, usageCents, entries, timestamps, types,
+                                amountsCents);
+                    } else {
+                        merger.write(writer, accountId, balanceCents + changed.balanceChangeCents, changed,
+                                usageDay, usageCents, entries, timestamps, types, amountsCents);
+                    }
+                });
+            }
+            // Accounts opened since the last snapshot
+            for (Map.Entry<String, AccountChanges> entry : changes.entrySet()) {
+                AccountChanges opened = entry.getValue();
+                merger.write(writer, entry.getKey(), opened.openingCents + opened.balanceChangeCents, opened,
+                        AccountSnapshot.NO_USAGE, 0, 0, null, null, null);
+            }
+            writer.commit();
+        }
+        snapshotOffset = reached;
+        SNAPSHOTS.increment();
+        SNAPSHOT_DURATION.recordSince(start);
+        return true;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            FAILURES.increment();
+            System.out.println("Could not write account snapshot: " + e.getMessage());
+        }
+    }
+
+    // Stops the schedule and takes a last snapshot so the next start has little journal to replay
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+    }
+
+    // What the journal records since the last snapshot did to one account, folded the way
+    // AccountLedger.recover() applies them: only the first open counts, even if a deposit or withdrawal
+    // came before it, and for accounts already in the snapshot it is ignored
+    private static final class AccountChanges {
+        private final TransactionHistory recent = new TransactionHistory();
+        private boolean opened;
+        long openingCents;
+        long balanceChangeCents;
+        long usageDay = AccountSnapshot.NO_USAGE; // latest day with a withdrawal, and the total withdrawn that day
+        long usageCents;
+
+        void apply(byte type, long timestamp, long amountCents, ZoneId zone) {
+            if (type == TransactionJournal.RECORD_OPEN) {
+                if (!opened) {
+                    opened = true;
+                    openingCents = amountCents;
+                }
+            } else if (type == TransactionJournal.RECORD_WITHDRAWAL) {
+                balanceChangeCents -= amountCents;
+                recent.add(timestamp, TransactionType.WITHDRAWAL, amountCents);
+                long day = LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), zone).toEpochDay();
+                if (day > usageDay) {
+                    usageDay = day;
+                    usageCents = amountCents;
+                } else if (day == usageDay) {
+                    usageCents += amountCents;
+                }
+            } else if (type == TransactionJournal.RECORD_DEPOSIT) {
+                balanceChangeCents += amountCents;
+                recent.add(timestamp, TransactionType.DEPOSIT, amountCents);
+            }
+        }
+    }
+
+    // Joins an account's snapshot history with its new entries, keeping the most recent ones
+    private static final class HistoryMerger {
+        private final int capacity = TransactionHistory.DEFAULT_CAPACITY;
+        private final long[] timestamps = new long[capacity];
+        private final byte[] types = new byte[capacity];
+        private final long[] amounts = new long[capacity];
+        private final long[] addedTimestamps = new long[capacity];
+        private final byte[] addedTypes = new byte[capacity];
+        private final long[] addedAmounts = new long[capacity];
+
+        void write(AccountSnapshot.Writer writer, String accountId, long balanceCents, AccountChanges changes,
+                long oldUsageDay, long oldUsageCents, int oldEntries, long[] oldTimestamps, byte[] oldTypes,
+                long[] oldAmounts) throws IOException {
+            long usageDay = changes.usageDay;
+            long usageCents = changes.usageCents;
+            if (oldUsageDay > usageDay) {
+                usageDay = oldUsageDay;
+                usageCents = oldUsageCents;
+            } else if (oldUsageDay == usageDay) {
+                usageCents += oldUsageCents;
+            }
+            int added = changes.recent.copyLast(capacity, addedTimestamps, addedTypes, addedAmounts);
+            int kept = Math.min(oldEntries, capacity - added);
+            if (kept > 0) {
+                System.arraycopy(oldTimestamps, oldEntries - kept, timestamps, 0, kept);
+                System.arraycopy(oldTypes, oldEntries - kept, types, 0, kept);
+                System.arraycopy(oldAmounts, oldEntries - kept, amounts, 0, kept);
+            }
+            System.arraycopy(addedTimestamps, 0, timestamps, kept, added);
+            System.arraycopy(addedTypes, 0, types, kept, added);
+            System.arraycopy(addedAmounts, 0, amounts, kept, added);
+            writer.add(accountId, balanceCents, usageDay, usageCents, kept + added, timestamps, types, amounts);
+        }
+    }
+}
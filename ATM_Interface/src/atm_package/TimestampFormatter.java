@@ -0,0 +1,60 @@
+package atm_package;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Appends epoch-millisecond timestamps exactly as LocalDateTime.toString() prints them
+// (e.g. 2024-05-01T09:30:15.250) straight into the caller's StringBuilder.
+// Each thread keeps its own instance, which remembers the date, hour and minute it rendered last,
+// so lines from the same minute only append the seconds and milliseconds.
+final class TimestampFormatter {
+    private static final ThreadLocal<TimestampFormatter> FORMATTER = ThreadLocal.withInitial(TimestampFormatter::new);
+
+    private long cachedMinute = Long.MIN_VALUE;
+    private String cachedPrefix; // "yyyy-MM-ddTHH:mm" of cachedMinute in the default zone
+
+    private TimestampFormatter() {
+    }
+
+    static StringBuilder appendTo(StringBuilder sb, long epochMillis) {
+        return FORMATTER.get().append(sb, epochMillis);
+    }
+
+    private StringBuilder append(StringBuilder sb, long epochMillis) {
+        long minute = Math.floorDiv(epochMillis, 60_000);
+        if (minute != cachedMinute) {
+            LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochSecond(minute * 60), ZoneId.systemDefault());
+            if (start.getSecond() != 0) {
+                // Zone offset is not a whole number of minutes (old local mean times); no shortcut
+                cachedMinute = Long.MIN_VALUE;
+                return sb.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+            }
+            cachedPrefix = start.toString();
+            cachedMinute = minute;
+        }
+        sb.append(cachedPrefix);
+        int millisOfMinute = (int) Math.floorMod(epochMillis, 60_000L);
+        if (millisOfMinute == 0) {
+            return sb;
+        }
+        int second = millisOfMinute / 1000;
+        int millis = millisOfMinute % 1000;
+        sb.append(':');
+        if (second < 10) {
+            sb.append('0');
+        }
+        sb.append(second);
+        if (millis > 0) {
+            sb.append('.');
+            if (millis < 100) {
+                sb.append('0');
+            }
+            if (millis < 10) {
+                sb.append('0');
+            }
+            sb.append(millis);
+        }
+        return sb;
+    }
+}
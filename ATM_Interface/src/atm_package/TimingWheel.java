@@ -0,0 +1,147 @@
+package atm_package;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hierarchical timing wheel for large numbers of inactivity timeouts.
+// Scheduling is O(1) and re-arming a timeout is a single volatile write: an entry whose
+// deadline moved later is simply re-bucketed when its old slot comes due.
+public class TimingWheel implements AutoCloseable {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Timeout[][] wheels = new Timeout[LEVELS][SLOTS];
+    private final Thread ticker;
+    private long currentTick;
+    private volatile boolean closed;
+
+    // A scheduled timeout; touch() pushes the deadline out, cancel() drops it
+    public static final class Timeout {
+        private final long durationMillis;
+        private volatile long deadline;
+        private volatile Runnable onExpire; // cleared once fired or cancelled so the session can be collected
+        private Timeout next;
+
+        Timeout(long durationMillis, Runnable onExpire) {
+            this.durationMillis = durationMillis;
+            this.onExpire = onExpire;
+            touch();
+        }
+
+        public void touch() {
+            deadline = System.currentTimeMillis() + durationMillis;
+        }
+
+        public void cancel() {
+            onExpire = null;
+        }
+
+        public boolean isActive() {
+            return onExpire != null;
+        }
+    }
+
+    public TimingWheel(long tickMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+        this.ticker = new Thread(this::run, "timing-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    // Runs onExpire once the timeout has not been touched for durationMillis
+    public Timeout schedule(long durationMillis, Runnable onExpire) {
+        Timeout timeout = new Timeout(durationMillis, onExpire);
+        synchronized (this) {
+            insert(timeout, currentTick + 1);
+        }
+        return timeout;
+    }
+
+    // Places the entry in the lowest level whose span covers its deadline; caller holds the lock
+    private void insert(Timeout timeout, long earliestTick) {
+        long target = Math.max(timeout.deadline / tickMillis, earliestTick);
+        long delta = Math.min(target - currentTick, MAX_SPAN - 1);
+        target = currentTick + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timeout.next = wheels[level][slot];
+        wheels[level][slot] = timeout;
+    }
+
+    private Timeout detach(int level, int slot) {
+        Timeout head = wheels[level][slot];
+        wheels[level][slot] = null;
+        return head;
+    }
+
+    private void advanceTo(long nowTick) {
+        List<Timeout> expired = new ArrayList<>();
+        synchronized (this) {
+            while (currentTick < nowTick) {
+                currentTick++;
+                // Move entries from higher levels down when their slot comes round
+                for (int level = 1; level < LEVELS; level++) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                        break;
+                    }
+                    int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                    for (Timeout t = detach(level, slot); t != null; ) {
+                        Timeout next = t.next;
+                        if (t.isActive()) {
+                            insert(t, currentTick);
+                        }
+                        t = next;
+                    }
+                }
+                for (Timeout t = detach(0, (int) (currentTick & SLOT_MASK)); t != null; ) {
+                    Timeout next = t.next;
+                    t.next = null;
+                    if (t.isActive()) {
+                        if (t.deadline / tickMillis <= currentTick) {
+                            expired.add(t);
+                        } else {
+                            insert(t, currentTick + 1); // touched since it was scheduled
+                        }
+                    }
+                    t = next;
+                }
+            }
+        }
+        for (Timeout t : expired) {
+            Runnable onExpire = t.onExpire;
+            t.onExpire = null;
+            if (onExpire != null) {
+                try {
+                    onExpire.run();
+                } catch (RuntimeException e) {
+                    System.out.println("Timeout handler failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            advanceTo(System.currentTimeMillis() / tickMillis);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+}
@@ -1,20 +1,43 @@
 package atm_package;
 
-import java.time.LocalDateTime;
-
 public class Transaction {
-    private LocalDateTime timestamp;
-    private String type;
-    private double amount;
+    private final long timestamp; // epoch millis
+    private final TransactionType type;
+    private final long amountCents;
+    private String rendered; // statement line, built on first use
 
-    public Transaction(String type, double amount) {
-        this.timestamp = LocalDateTime.now();
+    public Transaction(TransactionType type, long amountCents, long timestamp) {
+        this.timestamp = timestamp;
         this.type = type;
-        this.amount = amount;
+        this.amountCents = amountCents;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    // Appends the statement line for a transaction without creating a Transaction object
+    static StringBuilder appendTo(StringBuilder sb, long timestamp, TransactionType type, long amountCents) {
+        TimestampFormatter.appendTo(sb, timestamp).append(" - ").append(type).append(": ");
+        return Money.appendCents(sb, amountCents);
     }
 
+    // A transaction never changes, so its line is built once; a race only builds the same string twice
     @Override
     public String toString() {
-        return timestamp + " - " + type + ": " + amount;
+        String line = rendered;
+        if (line == null) {
+            line = appendTo(new StringBuilder(48), timestamp, type, amountCents).toString();
+            rendered = line;
+        }
+        return line;
     }
 }
@@ -0,0 +1,56 @@
+package atm_package;
+
+// Fixed-capacity ring buffer of recent transactions stored in primitive arrays.
+// Older entries are overwritten; the full history stays in the TransactionJournal.
+public class TransactionHistory {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final long[] timestamps;
+    private final byte[] types;
+    private final long[] amountsCents;
+    private long recorded; // total number of entries ever added
+
+    public TransactionHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TransactionHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.timestamps = new long[capacity];
+        this.types = new byte[capacity];
+        this.amountsCents = new long[capacity];
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(recorded, timestamps.length);
+    }
+
+    public synchronized void add(long timestamp, TransactionType type, long amountCents) {
+        int slot = (int) (recorded % timestamps.length);
+        timestamps[slot] = timestamp;
+        types[slot] = (byte) type.ordinal();
+        amountsCents[slot] = amountCents;
+        recorded++;
+    }
+
+    // Copies up to 'count' most recent entries, oldest first, into the given arrays.
+    // Returns the number of entries copied.
+    public synchronized int copyLast(int count, long[] timestampsOut, byte[] typesOut, long[] amountsOut) {
+        int n = Math.min(Math.min(count, size()), timestampsOut.length);
+        int capacity = timestamps.length;
+        long first = recorded - n;
+        for (int i = 0; i < n; i++) {
+            int slot = (int) ((first + i) % capacity);
+            timestampsOut[i] = timestamps[slot];
+            typesOut[i] = types[slot];
+            amountsOut[i] = amountsCents[slot];
+        }
+        return n;
+    }
+}
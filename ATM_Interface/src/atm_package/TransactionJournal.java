@@ -0,0 +1,290 @@
+package atm_package;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+// Append-only binary journal of account operations.
+// Records from all sessions are queued to a single writer thread which writes
+// them in batches and issues one fsync per batch (group commit).
+public class TransactionJournal implements Closeable {
+    public static final byte RECORD_OPEN = 0;
+    public static final byte RECORD_DEPOSIT = 1;
+    public static final byte RECORD_WITHDRAWAL = 2;
+
+    // idLength(2) + type(1) + timestamp(8) + amount(8) + crc(4), plus the account ID bytes
+    private static final int FIXED_RECORD_SIZE = 2 + 1 + 8 + 8 + 4;
+    private static final int MAX_BATCH = 1024;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    // Callback used when replaying the journal
+    public interface RecordHandler {
+        void onRecord(String accountId, byte type, long timestamp, long amountCents);
+    }
+
+    private static final class PendingRecord {
+        final byte[] bytes;
+        final CompletableFuture<Long> written = new CompletableFuture<>();
+
+        PendingRecord(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static final PendingRecord CLOSE = new PendingRecord(new byte[0]);
+
+    private final FileChannel channel;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private long writePosition;
+    private volatile long durablePosition; // everything before this is synced and complete
+    private volatile IOException failure;  // set if a failed batch could not be cut off the file
+    private volatile boolean closed;
+
+    public TransactionJournal(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.writePosition = channel.size();
+        this.durablePosition = writePosition;
+        this.writer = new Thread(this::runWriter, "transaction-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Appends a record and blocks until it is durable on disk.
+    // Returns the journal position up to which everything is durable.
+    // Interrupts do not end the wait: once queued, the record may be written anyway, and the caller must
+    // not undo an operation the journal will replay. The interrupt status is restored before returning.
+    public long append(String accountId, byte type, long timestamp, long amountCents) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new IOException("Journal stopped after a write error", failure);
+        }
+        PendingRecord record = new PendingRecord(encode(accountId, type, timestamp, amountCents));
+        queue.add(record);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return record.written.get(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    if (!writer.isAlive()) {
+                        // Queued after the writer's last drain on close; it will never be written
+                        record.written.completeExceptionally(new IOException("Journal is closed"));
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Replays every complete record from the given position and returns the end position.
+    // A torn record at the tail (from a crash mid-write) is truncated away.
+    // Must be called before any new records are appended.
+    public synchronized long replay(long fromPosition, RecordHandler handler) throws IOException {
+        long size = channel.size();
+        long position = scan(fromPosition, size, handler);
+        if (position < size) {
+            channel.truncate(position);
+        }
+        writePosition = position;
+        durablePosition = position;
+        return position;
+    }
+
+    // Reads the complete records between two positions without changing the journal and returns
+    // the position reached. Safe while sessions append, as long as toPosition <= getDurablePosition().
+    public long scan(long fromPosition, long toPosition, RecordHandler handler) throws IOException {
+        long position = fromPosition;
+        CRC32 crc = new CRC32();
+        while (position < toPosition) {
+            long window = Math.min(toPosition - position, MAP_WINDOW);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            int consumed = readRecords(mapped, crc, handler);
+            if (consumed == 0) {
+                break;
+            }
+            position += consumed;
+        }
+        return position;
+    }
+
+    // Position up to which every record is complete and synced to disk
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    // Decodes records from the buffer and returns the number of bytes consumed
+    private static int readRecords(ByteBuffer buf, CRC32 crc, RecordHandler handler) {
+        int start = 0;
+        while (buf.limit() - start >= 2) {
+            int idLength = buf.getShort(start) & 0xFFFF;
+            int recordLength = FIXED_RECORD_SIZE + idLength;
+            if (buf.limit() - start < recordLength) {
+                break;
+            }
+            int crcOffset = start + recordLength - 4;
+            ByteBuffer body = buf.duplicate();
+            body.position(start).limit(crcOffset);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != buf.getInt(crcOffset)) {
+                break;
+            }
+            byte[] id = new byte[idLength];
+            buf.get(start + 2, id);
+            int offset = start + 2 + idLength;
+            byte type = buf.get(offset);
+            long timestamp = buf.getLong(offset + 1);
+            long amountCents = buf.getLong(offset + 9);
+            handler.onRecord(new String(id, StandardCharsets.UTF_8), type, timestamp, amountCents);
+            start += recordLength;
+        }
+        return start;
+    }
+
+    private static byte[] encode(String accountId, byte type, long timestamp, long amountCents) {
+        byte[] id = accountId.getBytes(StandardCharsets.UTF_8);
+        if (id.length > 0xFFFF) {
+            throw new IllegalArgumentException("Account ID too long");
+        }
+        ByteBuffer buf = ByteBuffer.allocate(FIXED_RECORD_SIZE + id.length);
+        buf.putShort((short) id.length);
+        buf.put(id);
+        buf.put(type);
+        buf.putLong(timestamp);
+        buf.putLong(amountCents);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.array();
+    }
+
+    private void runWriter() {
+        List<PendingRecord> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            if (batch.remove(CLOSE)) {
+                running = false;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+        // Fail anything that raced with close so no caller waits forever
+        queue.drainTo(batch);
+        for (PendingRecord record : batch) {
+            record.written.completeExceptionally(new IOException("Journal is closed"));
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (failure != null) {
+            IOException rejected = new IOException("Journal stopped after a write error", failure);
+            for (PendingRecord record : batch) {
+                record.written.completeExceptionally(rejected);
+            }
+            return;
+        }
+        try {
+            buffer.clear();
+            for (PendingRecord record : batch) {
+                if (buffer.remaining() < record.bytes.length) {
+                    flushBuffer();
+                    if (buffer.capacity() < record.bytes.length) {
+                        buffer = ByteBuffer.allocate(record.bytes.length);
+                    }
+                }
+                buffer.put(record.bytes);
+            }
+            flushBuffer();
+            // One sync covers every record in the batch
+            channel.force(false);
+            long end = writePosition;
+            durablePosition = end;
+            for (PendingRecord record : batch) {
+                record.written.complete(end);
+            }
+        } catch (IOException e) {
+            rollBack(e);
+            for (PendingRecord record : batch) {
+                record.written.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Cuts off whatever part of a failed batch reached the file, so the next batch follows the last
+    // durable record instead of torn bytes that replay would stop at. If even that fails, every
+    // further append is rejected rather than acknowledged and lost on recovery.
+    private void rollBack(IOException cause) {
+        try {
+            channel.truncate(durablePosition);
+            channel.force(false);
+            writePosition = durablePosition;
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            writePosition += channel.write(buffer, writePosition);
+        }
+        buffer.clear();
+    }
+
+    // Flushes pending records and closes the file
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
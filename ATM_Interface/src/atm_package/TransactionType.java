@@ -0,0 +1,24 @@
+package atm_package;
+
+public enum TransactionType {
+    DEPOSIT("Deposit"),
+    WITHDRAWAL("Withdrawal");
+
+    private static final TransactionType[] VALUES = values();
+
+    private final String label;
+
+    TransactionType(String label) {
+        this.label = label;
+    }
+
+    // Looks up a type by its stored ordinal without cloning the values array
+    public static TransactionType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
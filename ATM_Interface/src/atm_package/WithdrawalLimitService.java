@@ -0,0 +1,124 @@
+package atm_package;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tracks how much each account has withdrawn today, shared by all ATM sessions.
+// Each account's usage is one AtomicLong packing the calendar day and the cents used,
+// so a reservation is a single CAS and a new day resets the bucket automatically.
+public class WithdrawalLimitService {
+    public static final Money DEFAULT_DAILY_LIMIT = Money.of(5000);
+
+    private static final int USED_BITS = 40;
+    private static final long USED_MASK = (1L << USED_BITS) - 1;
+    private static final long TWO_DAYS_MILLIS = 2 * 24 * 60 * 60 * 1000L;
+    private static final WithdrawalLimitService SHARED =
+            new WithdrawalLimitService(DEFAULT_DAILY_LIMIT, Clock.systemDefaultZone());
+
+    private final ConcurrentMap<String, AtomicLong> usage = new ConcurrentHashMap<>();
+    private final long dailyLimitCents;
+    private final Clock clock;
+
+    public WithdrawalLimitService(Money dailyLimit, Clock clock) {
+        if (dailyLimit.getCents() < 0 || dailyLimit.getCents() > USED_MASK) {
+            throw new IllegalArgumentException("Daily limit must be between 0 and " + Money.ofCents(USED_MASK));
+        }
+        this.dailyLimitCents = dailyLimit.getCents();
+        this.clock = clock;
+    }
+
+    // Service used by ATMs that are not given one explicitly
+    public static WithdrawalLimitService shared() {
+        return SHARED;
+    }
+
+    // Reserves the amount against today's limit; returns false if it would exceed the limit
+    public boolean tryReserve(String accountId, long cents) {
+        long today = today();
+        AtomicLong state = usage.computeIfAbsent(accountId, id -> new AtomicLong());
+        while (true) {
+            long current = state.get();
+            long used = usedToday(current, today);
+            if (cents > dailyLimitCents - used) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(today, used + cents))) {
+                return true;
+            }
+        }
+    }
+
+    // Gives back a reservation whose withdrawal did not go through
+    public void release(String accountId, long cents) {
+        AtomicLong state = usage.get(accountId);
+        if (state == null) {
+            return;
+        }
+        long today = today();
+        while (true) {
+            long current = state.get();
+            if (current >>> USED_BITS != today) {
+                return; // The day rolled over, nothing left to give back
+            }
+            long used = Math.max(0, (current & USED_MASK) - cents);
+            if (state.compareAndSet(current, pack(today, used))) {
+                return;
+            }
+        }
+    }
+
+    // Counts a withdrawal replayed from the journal at startup toward its day's usage, so a restart
+    // does not hand out a fresh allowance; withdrawals from earlier days are ignored
+    public void recordRecovered(String accountId, long timestamp, long cents) {
+        if (timestamp < clock.millis() - TWO_DAYS_MILLIS) {
+            return; // Cannot be today in any time zone, skip the date arithmetic
+        }
+        addUsage(accountId, LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), clock.getZone()).toEpochDay(), cents);
+    }
+
+    // Restores the usage an account had on the given epoch day, as saved in an AccountSnapshot
+    public void restoreUsage(String accountId, long day, long cents) {
+        addUsage(accountId, day, cents);
+    }
+
+    // Forgets all usage; only for recovery starting over
+    void clearUsage() {
+        usage.clear();
+    }
+
+    private void addUsage(String accountId, long day, long cents) {
+        if (cents <= 0 || day != today()) {
+            return;
+        }
+        AtomicLong state = usage.computeIfAbsent(accountId, id -> new AtomicLong());
+        while (true) {
+            long current = state.get();
+            long used = Math.min(USED_MASK, usedToday(current, day) + cents);
+            if (state.compareAndSet(current, pack(day, used))) {
+                return;
+            }
+        }
+    }
+
+    public long getRemainingCents(String accountId) {
+        AtomicLong state = usage.get(accountId);
+        long used = state == null ? 0 : usedToday(state.get(), today());
+        return dailyLimitCents - used;
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private static long usedToday(long state, long today) {
+        return state >>> USED_BITS == today ? state & USED_MASK : 0;
+    }
+
+    private static long pack(long day, long used) {
+        return (day << USED_BITS) | used;
+    }
+}
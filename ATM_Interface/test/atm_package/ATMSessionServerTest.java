@@ -0,0 +1,89 @@
+package atm_package;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Sessions over the loopback protocol, including idle clients being timed out
+class ATMSessionServerTest {
+    private static final long TIMEOUT_MILLIS = 300;
+
+    @Test
+    void idleClientsAreToldAndDisconnected() throws Exception {
+        AccountLedger ledger = new AccountLedger();
+        ledger.openAccount("1001", Money.of(10));
+        try (ATMSessionServer server = start(ledger)) {
+            // One client never sends its account number, the other goes idle inside the ATM menu
+            try (Socket before = connect(server); Socket after = connect(server)) {
+                after.getOutputStream().write("1001\n".getBytes(StandardCharsets.UTF_8));
+                after.getOutputStream().flush();
+
+                long start = System.nanoTime();
+                List<String> first = readUntilClosed(before);
+                List<String> second = readUntilClosed(after);
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+                assertTrue(last(first).contains("Session timed out"), "Got " + first);
+                assertTrue(last(second).contains("Session timed out"), "Got " + second);
+                assertTrue(elapsedMillis < 10 * TIMEOUT_MILLIS, "Closed after " + elapsedMillis + " ms");
+            }
+            waitForNoSessions(server);
+        }
+    }
+
+    @Test
+    void unknownAccountEndsTheSession() throws Exception {
+        try (ATMSessionServer server = start(new AccountLedger()); Socket client = connect(server)) {
+            client.getOutputStream().write("9999\n".getBytes(StandardCharsets.UTF_8));
+            client.getOutputStream().flush();
+            assertTrue(last(readUntilClosed(client)).endsWith("Unknown account."));
+            waitForNoSessions(server);
+        }
+    }
+
+    private static ATMSessionServer start(AccountLedger ledger) throws IOException {
+        ATMSessionServer server = new ATMSessionServer(ledger, 0, TIMEOUT_MILLIS);
+        Thread acceptor = new Thread(server::serve, "test-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    private static Socket connect(ATMSessionServer server) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static List<String> readUntilClosed(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        for (String line; (line = reader.readLine()) != null; ) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static String last(List<String> lines) {
+        return lines.isEmpty() ? "" : lines.get(lines.size() - 1);
+    }
+
+    private static void waitForNoSessions(ATMSessionServer server) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.getActiveSessions() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getActiveSessions());
+    }
+}
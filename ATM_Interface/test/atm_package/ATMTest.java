@@ -0,0 +1,42 @@
+package atm_package;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+// The menu as a user drives it through the session's input and output streams
+class ATMTest {
+
+    @Test
+    void miniStatementListsTheLastFiveTransactions() {
+        BankAccount account = new BankAccount("1001", Money.of(100));
+        // Seven operations, so the statement has to leave the first two out
+        String input = "2\n10\n2\n20.5\n1\n3\n2\n4\n1\n5.25\n2\n6\n2\n7\n4\n6\n";
+        ByteArrayOutputStream session = new ByteArrayOutputStream();
+        new ATM(account, new Scanner(input), new PrintStream(session, true, StandardCharsets.UTF_8)).handleAPIs();
+
+        long[] timestamps = new long[5];
+        byte[] types = new byte[5];
+        long[] amounts = new long[5];
+        int count = account.copyLastTransactions(5, timestamps, types, amounts);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expected.add(Transaction.appendTo(new StringBuilder(), timestamps[i], TransactionType.fromOrdinal(types[i]),
+                    amounts[i]).toString());
+        }
+        List<String> lines = Arrays.asList(session.toString(StandardCharsets.UTF_8).split(System.lineSeparator()));
+        int first = lines.indexOf("Mini-Statement") + 2;
+
+        assertEquals(5, count);
+        assertEquals(expected, lines.subList(first, first + count));
+        assertEquals("------------------", lines.get(first + count));
+    }
+}
@@ -0,0 +1,114 @@
+package atm_package;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+// Hammers shared accounts from many threads and checks that no update is lost: every account's final
+// balance must equal its opening balance plus the deposits and minus the withdrawals that were accepted.
+// Also prints throughput at 1, 2, 4 and all available threads.
+class BankAccountStressTest {
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+    private static final int ACCOUNTS = 8;
+    // Large enough that withdrawals never run out, so every operation takes the CAS path
+    private static final Money OPENING_BALANCE = Money.of(1_000_000_000);
+
+    @Test
+    void balancesMatchAcceptedOperationsAtEveryThreadCount() throws Exception {
+        TreeSet<Integer> threadCounts = new TreeSet<>(List.of(1, 2, 4, Runtime.getRuntime().availableProcessors()));
+        for (int threads : threadCounts) {
+            double opsPerSecond = run(threads);
+            System.out.printf("%2d threads: %,.0f ops/sec%n", threads, opsPerSecond);
+        }
+    }
+
+    @Test
+    void concurrentOpensReturnTheSameAccount() throws Exception {
+        AccountLedger ledger = new AccountLedger();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<BankAccount>> opened = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                opened.add(pool.submit(() -> {
+                    start.await();
+                    return ledger.openAccount("1001", Money.of(100));
+                }));
+            }
+            start.countDown();
+            BankAccount first = opened.get(0).get();
+            for (Future<BankAccount> account : opened) {
+                assertSame(first, account.get());
+            }
+            assertEquals(1, ledger.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Runs a mixed deposit/withdraw workload and returns operations per second
+    private static double run(int threads) throws Exception {
+        AccountLedger ledger = new AccountLedger();
+        for (int a = 0; a < ACCOUNTS; a++) {
+            ledger.openAccount("acct" + a, OPENING_BALANCE);
+        }
+        // Net accepted change per thread and account, summed after the run
+        long[][] accepted = new long[threads][ACCOUNTS];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long[] mine = accepted[t];
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        int a = random.nextInt(ACCOUNTS);
+                        BankAccount account = ledger.getAccount("acct" + a);
+                        long cents = 1 + random.nextInt(10_000);
+                        if (random.nextBoolean()) {
+                            if (account.deposit(Money.ofCents(cents))) {
+                                mine[a] += cents;
+                            }
+                        } else if (account.withdraw(Money.ofCents(cents))) {
+                            mine[a] -= cents;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            long elapsed = System.nanoTime() - started;
+
+            for (int a = 0; a < ACCOUNTS; a++) {
+                long expected = OPENING_BALANCE.getCents();
+                for (long[] perThread : accepted) {
+                    expected += perThread[a];
+                }
+                long balance = ledger.getAccount("acct" + a).getBalance().getCents();
+                assertEquals(expected, balance, "Lost update on acct" + a + " with " + threads + " threads");
+                assertTrue(balance >= 0, "Negative balance on acct" + a);
+            }
+            return (double) threads * OPERATIONS_PER_THREAD / (elapsed / 1e9);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package atm_package;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+// What a restart rebuilds must match what sessions were told before it
+class JournalRecoveryTest {
+
+    @Test
+    void depositJournaledBeforeOpenKeepsTheOpeningBalance() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        Path journalFile = dir.resolve("journal.bin");
+        long now = System.currentTimeMillis();
+        // As older builds could write it: a session deposited before the open record reached the journal
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            journal.append("1001", TransactionJournal.RECORD_DEPOSIT, now, 20_00);
+            journal.append("1001", TransactionJournal.RECORD_OPEN, now, 500_00);
+            journal.append("1001", TransactionJournal.RECORD_WITHDRAWAL, now, 5_00);
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            ledger.recover();
+            assertEquals(515_00, ledger.getAccount("1001").getBalance().getCents());
+        }
+
+        // The compactor folds the same records into the same balance
+        Path snapshotFile = dir.resolve("snapshot.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            new AccountLedger(journal, newLimits()).recover();
+            SnapshotCompactor compactor = new SnapshotCompactor(journal, snapshotFile, 0, Duration.ofHours(1).toMillis());
+            assertTrue(compactor.compact());
+            compactor.close();
+        }
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            assertTrue(ledger.recover(snapshotFile) > 0);
+            assertEquals(515_00, ledger.getAccount("1001").getBalance().getCents());
+        }
+    }
+
+    @Test
+    void openIsJournaledBeforeTheAccountIsVisible() throws IOException {
+        Path journalFile = Files.createTempDirectory("journal").resolve("journal.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            ledger.openAccount("1001", Money.of(100)).deposit(Money.of(1));
+        }
+        StringBuilder types = new StringBuilder();
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            journal.replay(0, (accountId, type, timestamp, amountCents) -> types.append(type));
+        }
+        assertEquals("" + TransactionJournal.RECORD_OPEN + TransactionJournal.RECORD_DEPOSIT, types.toString());
+    }
+
+    @Test
+    void interruptedWithdrawalStaysInTheJournal() throws IOException {
+        Path journalFile = Files.createTempDirectory("journal").resolve("journal.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            BankAccount account = new AccountLedger(journal, newLimits()).openAccount("1001", Money.of(100));
+            Thread.currentThread().interrupt(); // As ATMSessionServer.close() does to session threads
+            try {
+                assertTrue(account.withdraw(Money.of(30)), "The withdrawal was journaled, so it must succeed");
+                assertTrue(Thread.currentThread().isInterrupted(), "The interrupt is kept for the caller");
+            } finally {
+                Thread.interrupted();
+            }
+            assertEquals(70_00, account.getBalance().getCents());
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            ledger.recover();
+            assertEquals(70_00, ledger.getAccount("1001").getBalance().getCents());
+        }
+    }
+
+    @Test
+    void journalFailureIsReportedToTheSessionNotAsInsufficientFunds() throws IOException {
+        Path journalFile = Files.createTempDirectory("journal").resolve("journal.bin");
+        TransactionJournal journal = new TransactionJournal(journalFile);
+        WithdrawalLimitService limits = newLimits();
+        BankAccount account = new AccountLedger(journal, limits).openAccount("1001", Money.of(100));
+        journal.close();
+
+        ByteArrayOutputStream session = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        ByteArrayOutputStream server = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(server, true));
+        try {
+            ATM atm = new ATM(account, new Scanner(""), new PrintStream(session, true), limits);
+            assertFalse(atm.withdraw(Money.of(30)));
+            atm.deposit(Money.of(5));
+        } finally {
+            System.setOut(console);
+        }
+
+        String told = session.toString();
+        assertFalse(told.contains("Insufficient funds"), told);
+        assertEquals(2, told.split("could not be recorded", -1).length - 1, told);
+        assertFalse(server.toString().contains("could not be recorded"), "The user's message stays off the console");
+        assertEquals(100_00, account.getBalance().getCents());
+        assertEquals(1_000_00, limits.getRemainingCents("1001"), "The refused withdrawal used none of the limit");
+    }
+
+    private static WithdrawalLimitService newLimits() {
+        return new WithdrawalLimitService(Money.of(1_000), Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,83 @@
+package atm_package;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+// A snapshot must always describe the whole journal up to its offset, even if the previous one is lost
+class SnapshotCompactorTest {
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    void missingSnapshotIsRebuiltFromTheWholeJournal() throws IOException {
+        Path dir = Files.createTempDirectory("compactor");
+        Path journalFile = dir.resolve("journal.bin");
+        Path snapshotFile = dir.resolve("snapshot.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            SnapshotCompactor compactor = new SnapshotCompactor(journal, snapshotFile, ledger.recover(snapshotFile),
+                    HOUR);
+            ledger.openAccount("1001", Money.of(500)).deposit(Money.of(20));
+            assertTrue(compactor.compact());
+
+            Files.delete(snapshotFile);
+            ledger.openAccount("1002", Money.of(300)).withdraw(Money.of(50));
+            assertTrue(compactor.compact());
+            compactor.close();
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            assertEquals(journal.size(), ledger.recover(snapshotFile), "Snapshot covers the whole journal");
+            assertEquals(520_00, ledger.getAccount("1001").getBalance().getCents());
+            assertEquals(250_00, ledger.getAccount("1002").getBalance().getCents());
+        }
+    }
+
+    @Test
+    void snapshotPlusTailMatchesFullReplay() throws IOException {
+        Path dir = Files.createTempDirectory("compactor");
+        Path journalFile = dir.resolve("journal.bin");
+        Path snapshotFile = dir.resolve("snapshot.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            SnapshotCompactor compactor = new SnapshotCompactor(journal, snapshotFile, ledger.recover(snapshotFile),
+                    HOUR);
+            for (int i = 0; i < 50; i++) {
+                BankAccount account = ledger.openAccount("acct-" + (i % 7), Money.of(100));
+                account.deposit(Money.ofCents(100 + i));
+                if (i % 10 == 9) {
+                    assertTrue(compactor.compact());
+                }
+            }
+            ledger.getAccount("acct-3").withdraw(Money.of(40)); // Only in the journal tail
+        }
+
+        long[] replayed = new long[7];
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            ledger.recover();
+            for (int i = 0; i < 7; i++) {
+                replayed[i] = ledger.getAccount("acct-" + i).getBalance().getCents();
+            }
+        }
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, newLimits());
+            assertTrue(ledger.recover(snapshotFile) > 0);
+            for (int i = 0; i < 7; i++) {
+                assertEquals(replayed[i], ledger.getAccount("acct-" + i).getBalance().getCents());
+            }
+        }
+    }
+
+    private static WithdrawalLimitService newLimits() {
+        return new WithdrawalLimitService(Money.of(1_000), Clock.systemDefaultZone());
+    }
+}
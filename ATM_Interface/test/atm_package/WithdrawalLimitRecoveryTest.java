@@ -0,0 +1,94 @@
+package atm_package;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+// Today's withdrawals must still count against the daily limit after a restart,
+// whether the ledger is rebuilt from the whole journal or from a snapshot plus the journal tail
+class WithdrawalLimitRecoveryTest {
+    private static final Money DAILY_LIMIT = Money.of(100);
+
+    @Test
+    void journalReplayRestoresTodaysUsage() throws IOException {
+        Path dir = Files.createTempDirectory("limits");
+        Path journalFile = dir.resolve("journal.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            WithdrawalLimitService limits = new WithdrawalLimitService(DAILY_LIMIT, Clock.systemDefaultZone());
+            AccountLedger ledger = new AccountLedger(journal, limits);
+            withdraw(ledger.openAccount("1001", Money.of(500)), limits, 60_00);
+        }
+
+        WithdrawalLimitService limits = new WithdrawalLimitService(DAILY_LIMIT, Clock.systemDefaultZone());
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            new AccountLedger(journal, limits).recover();
+        }
+        assertEquals(40_00, limits.getRemainingCents("1001"));
+    }
+
+    @Test
+    void snapshotRestoresTodaysUsage() throws IOException {
+        Path dir = Files.createTempDirectory("limits");
+        Path journalFile = dir.resolve("journal.bin");
+        Path snapshotFile = dir.resolve("snapshot.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            WithdrawalLimitService limits = new WithdrawalLimitService(DAILY_LIMIT, Clock.systemDefaultZone());
+            AccountLedger ledger = new AccountLedger(journal, limits);
+            SnapshotCompactor compactor = new SnapshotCompactor(journal, snapshotFile, ledger.recover(snapshotFile),
+                    Duration.ofHours(1).toMillis());
+            BankAccount account = ledger.openAccount("1001", Money.of(500));
+            withdraw(account, limits, 30_00);
+            assertTrue(compactor.compact());
+            // Journaled after the snapshot, so only the replayed tail has it
+            withdraw(account, limits, 25_00);
+            compactor.close();
+            withdraw(account, limits, 5_00);
+        }
+
+        WithdrawalLimitService limits = new WithdrawalLimitService(DAILY_LIMIT, Clock.systemDefaultZone());
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            AccountLedger ledger = new AccountLedger(journal, limits);
+            assertTrue(ledger.recover(snapshotFile) > 0);
+            assertEquals(440_00, ledger.getAccount("1001").getBalance().getCents());
+        }
+        assertEquals(40_00, limits.getRemainingCents("1001"));
+    }
+
+    @Test
+    void earlierDaysDoNotCount() throws IOException {
+        Path journalFile = Files.createTempDirectory("limits").resolve("journal.bin");
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            WithdrawalLimitService limits = new WithdrawalLimitService(DAILY_LIMIT, Clock.systemDefaultZone());
+            withdraw(new AccountLedger(journal, limits).openAccount("1001", Money.of(500)), limits, 60_00);
+        }
+
+        Clock tomorrow = Clock.offset(Clock.systemDefaultZone(), Duration.ofDays(1));
+        WithdrawalLimitService limits = new WithdrawalLimitService(DAILY_LIMIT, tomorrow);
+        try (TransactionJournal journal = new TransactionJournal(journalFile)) {
+            new AccountLedger(journal, limits).recover();
+        }
+        assertEquals(DAILY_LIMIT.getCents(), limits.getRemainingCents("1001"));
+    }
+
+    @Test
+    void limitsThatDoNotFitAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WithdrawalLimitService(Money.ofCents(1L << 40), Clock.systemDefaultZone()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WithdrawalLimitService(Money.ofCents(-1), Clock.systemDefaultZone()));
+    }
+
+    // Reserves and withdraws the way an ATM session does
+    private static void withdraw(BankAccount account, WithdrawalLimitService limits, long cents) {
+        assertTrue(limits.tryReserve(account.getAccountId(), cents));
+        assertTrue(account.withdraw(Money.ofCents(cents)));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.CurrencyConverter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Parsing a full ~170-currency rates feed: streaming parser vs. the old StringBuilder + JSONObject + HashMap path.
+// Run with -prof gc to compare allocation per parse.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RatesParserBenchmark {
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"disclaimer\":\"Usage subject to terms\",\"license\":\"https://example.com\","
+                + "\"timestamp\":1720000000,\"base\":\"USD\",\"rates\":{");
+        for (int i = 0; i < 170; i++) {
+            String code = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26) + (char) ('A' + (i * 7) % 26);
+            double rate = random.nextDouble() * Math.pow(10, random.nextInt(6) - 2);
+            json.append(i > 0 ? ",\n    \"" : "\n    \"").append(code).append("\": ")
+                    .append(String.format(Locale.ROOT, "%.6f", rate));
+        }
+        json.append("\n  }\n}");
+        payload = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public double[] streaming() throws IOException {
+        return RatesParser.parse(new ByteArrayInputStream(payload));
+    }
+
+    @Benchmark
+    public Map<String, Double> jsonObject() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payload)));
+        String inputLine;
+        StringBuilder response = new StringBuilder();
+        while ((inputLine = in.readLine()) != null) {
+            response.append(inputLine);
+        }
+        in.close();
+
+        JSONObject rates = new JSONObject(response.toString()).getJSONObject("rates");
+        Map<String, Double> exchangeRates = new HashMap<>();
+        for (String key : rates.keySet()) {
+            exchangeRates.put(key, rates.getDouble(key));
+        }
+        return exchangeRates;
+    }
+}
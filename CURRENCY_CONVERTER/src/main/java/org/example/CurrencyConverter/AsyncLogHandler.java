@@ -0,0 +1,259 @@
+package org.example.CurrencyConverter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+// Log handler that never makes the caller wait for the disk.
+// publish() only claims a slot in a bounded ring buffer; a writer thread formats the records
+// (including their {0} parameters) and appends them to the log file, rolling it over by size.
+// If the writer falls a full buffer behind, new records are dropped and counted rather than blocking.
+class AsyncLogHandler extends Handler {
+    private static final LongAdder DROPPED = Metrics.shared().counter("log.dropped");
+
+    private final AtomicReferenceArray<LogRecord> ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // next slot to claim
+    private volatile long head;                       // next slot the writer reads
+    private final Path file;
+    private final long maxFileBytes;
+    private final int fileCount;
+    private final Thread writer;
+    private volatile boolean writerWaiting;
+    private volatile boolean closed;
+    private Writer out;
+    private long fileBytes;
+    private long droppedReported;
+
+    // capacity is rounded up to a power of two; the log keeps fileCount - 1 rolled-over files
+    AsyncLogHandler(Path file, int capacity, long maxFileBytes, int fileCount) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.fileCount = fileCount;
+        setFormatter(new LineFormatter());
+        openFile();
+        this.writer = new Thread(this::run, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head >= ring.length()) {
+                DROPPED.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        ring.set((int) slot & mask, record);
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean wrote = drain();
+            if (closed && head == tail.get()) {
+                break;
+            }
+            if (!wrote) {
+                // Producers see the flag and unpark us; the timeout covers a record claimed but not yet stored
+                writerWaiting = true;
+                if (head == tail.get()) {
+                    LockSupport.parkNanos(100_000_000L);
+                } else {
+                    Thread.onSpinWait();
+                }
+                writerWaiting = false;
+            }
+        }
+        closeFile();
+    }
+
+    // Writes every record published so far and flushes once; returns false if there was nothing to write
+    private boolean drain() {
+        boolean wrote = false;
+        long next = head;
+        LogRecord record;
+        while ((record = ring.get((int) next & mask)) != null) {
+            ring.set((int) next & mask, null);
+            head = ++next;
+            write(getFormatter().format(record));
+            wrote = true;
+        }
+        long dropped = DROPPED.sum();
+        if (dropped > droppedReported) {
+            write(getFormatter().format(new LogRecord(Level.WARNING,
+                    (dropped - droppedReported) + " log records dropped, the log writer fell behind")));
+            droppedReported = dropped;
+            wrote = true;
+        }
+        if (wrote) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+        return wrote;
+    }
+
+    private void write(String line) {
+        try {
+            if (fileBytes + line.length() > maxFileBytes && fileBytes > 0) {
+                rollOver();
+            }
+            out.write(line);
+            fileBytes += line.length();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    // CurrencyConverter.log becomes .log.1, .log.1 becomes .log.2, and so on; the oldest is deleted
+    private void rollOver() throws IOException {
+        out.close();
+        for (int i = fileCount - 1; i > 0; i--) {
+            Path source = i == 1 ? file : rolledFile(i - 1);
+            if (Files.exists(source)) {
+                Files.move(source, rolledFile(i), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        openFile();
+    }
+
+    private Path rolledFile(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openFile() throws IOException {
+        out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        fileBytes = Files.size(file);
+    }
+
+    private void closeFile() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    // Nothing to do; the writer flushes after every batch
+    @Override
+    public void flush() {
+    }
+
+    // Writes out everything already published, then stops the writer
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One line per record: time, level, thread id and the message with its parameters filled in.
+    // Deliberately leaves out the source class and method, which JUL would have to find by walking the stack.
+    // Not thread-safe: it caches the formatted time, and only the writer thread uses it.
+    static final class LineFormatter extends Formatter {
+        private static final DateTimeFormatter SECONDS =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedTime;
+
+        @Override
+        public String format(LogRecord record) {
+            StringBuilder sb = new StringBuilder(128);
+            appendTime(record.getMillis(), sb);
+            sb.append(' ').append(record.getLevel().getName())
+                    .append(" [").append(record.getLongThreadID()).append("] ");
+            appendMessage(record, sb);
+            sb.append(System.lineSeparator());
+            if (record.getThrown() != null) {
+                StringWriter trace = new StringWriter();
+                record.getThrown().printStackTrace(new PrintWriter(trace));
+                sb.append(trace);
+            }
+            return sb.toString();
+        }
+
+        // Records arrive in bursts within the same second, so the date-time part is formatted once per second
+        private void appendTime(long millis, StringBuilder sb) {
+            long second = Math.floorDiv(millis, 1000);
+            if (second != cachedSecond) {
+                cachedTime = SECONDS.format(Instant.ofEpochSecond(second));
+                cachedSecond = second;
+            }
+            int fraction = Math.floorMod(millis, 1000);
+            sb.append(cachedTime).append('.');
+            if (fraction < 100) {
+                sb.append('0');
+            }
+            if (fraction < 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+
+        // Fills in {0}..{9} directly when every parameter is text, which is several times cheaper
+        // than MessageFormat; anything else (numbers, quotes, bundles) goes through formatMessage
+        private void appendMessage(LogRecord record, StringBuilder sb) {
+            String message = record.getMessage();
+            Object[] parameters = record.getParameters();
+            if (message == null || parameters == null || parameters.length == 0 || parameters.length > 10
+                    || record.getResourceBundle() != null || message.indexOf('\'') >= 0) {
+                sb.append(formatMessage(record));
+                return;
+            }
+            for (Object parameter : parameters) {
+                if (!(parameter instanceof CharSequence)) {
+                    sb.append(formatMessage(record));
+                    return;
+                }
+            }
+            int start = 0;
+            for (int i = message.indexOf('{'); i >= 0 && i + 2 < message.length(); i = message.indexOf('{', i + 1)) {
+                int index = message.charAt(i + 1) - '0';
+                if (message.charAt(i + 2) == '}' && index >= 0 && index < parameters.length) {
+                    sb.append(message, start, i).append((CharSequence) parameters[index]);
+                    start = i + 3;
+                    i += 2;
+                }
+            }
+            sb.append(message, start, message.length());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.example.CurrencyConverter;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless batch mode: converts a CSV of "amount,from,to" rows into "amount,from,to,converted".
+// The input is memory-mapped chunk by chunk, chunks are converted in parallel on a fork-join pool,
+// and results are written in input order with only a few chunks in memory at a time.
+public class BatchConverter {
+    private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final byte[] HEADER = "amount,from,to,converted\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final CurrencyConversionService conversionService;
+    private final ForkJoinPool pool;
+    private final int maxChunksInFlight;
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong bytesDone = new AtomicLong();
+
+    public BatchConverter(CurrencyConversionService conversionService, ForkJoinPool pool) {
+        this.conversionService = conversionService;
+        this.pool = pool;
+        this.maxChunksInFlight = pool.getParallelism() * 2;
+    }
+
+    // Usage: BatchConverter <input.csv> <output.csv> [rates-url]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchConverter <input.csv> <output.csv> [rates-url]");
+            System.exit(2);
+        }
+        CurrencyConversionService service;
+        if (args.length > 2) {
+            service = CurrencyConversionService.startLive(URI.create(args[2]), Duration.ofHours(1), Duration.ZERO);
+            awaitLiveRates(service, Duration.ofSeconds(10));
+        } else {
+            service = new CurrencyConversionService();
+        }
+        try (service) {
+            new BatchConverter(service, ForkJoinPool.commonPool()).run(Paths.get(args[0]), Paths.get(args[1]));
+        }
+    }
+
+    private static void awaitLiveRates(CurrencyConversionService service, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (service.getRatesAsOf().equals(Instant.EPOCH) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        if (service.getRatesAsOf().equals(Instant.EPOCH)) {
+            System.err.println("Could not fetch live rates, using built-in fallback rates");
+        }
+    }
+
+    public void run(Path input, Path output) throws IOException {
+        long started = System.nanoTime();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "batch-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            progress.scheduleAtFixedRate(() -> reportProgress(size, started), 2, 2, TimeUnit.SECONDS);
+            writeFully(out, HEADER);
+
+            ArrayDeque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+            long position = skipHeader(in);
+            while (position < size || !inFlight.isEmpty()) {
+                // Keep a bounded number of chunks queued so memory stays flat for any file size
+                while (position < size && inFlight.size() < maxChunksInFlight) {
+                    long length = Math.min(CHUNK_SIZE, size - position);
+                    MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    int end = position + length == size ? (int) length : lastLineEnd(chunk);
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + CHUNK_SIZE + " bytes at offset " + position);
+                    }
+                    chunk.limit(end);
+                    inFlight.add(pool.submit(new ConvertChunk(chunk)));
+                    position += end;
+                }
+                writeFully(out, inFlight.poll().join());
+            }
+        } finally {
+            progress.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        System.err.printf("Converted %d rows (%d errors) in %.1f s, %.0f rows/sec%n", rows.get(), errors.get(),
+                elapsedNanos / 1e9, rows.get() / (elapsedNanos / 1e9));
+    }
+
+    private void reportProgress(long size, long started) {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%5.1f%%  %d rows  %.0f rows/sec%n", size == 0 ? 100.0 : 100.0 * bytesDone.get() / size,
+                rows.get(), rows.get() / seconds);
+    }
+
+    // Returns the position of the first data row, skipping a header line if there is one
+    private static long skipHeader(FileChannel in) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(256);
+        in.read(head, 0);
+        head.flip();
+        if (!head.hasRemaining() || isAmountStart(head.get(0))) {
+            return 0;
+        }
+        for (int i = 0; i < head.limit(); i++) {
+            if (head.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isAmountStart(byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    // Length up to and including the last newline in the buffer, or 0 if there is none
+    private static int lastLineEnd(ByteBuffer chunk) {
+        for (int i = chunk.limit() - 1; i >= 0; i--) {
+            if (chunk.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static void writeFully(FileChannel out, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // Converts every row of one chunk and returns the encoded output lines
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private final class ConvertChunk extends RecursiveTask<byte[]> {
+        private final ByteBuffer chunk;
+
+        ConvertChunk(ByteBuffer chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected byte[] compute() {
+            StringBuilder output = new StringBuilder(chunk.limit() + chunk.limit() / 2);
+            AsciiSlice field = new AsciiSlice(chunk);
+            int lineStart = 0;
+            int limit = chunk.limit();
+            long rowCount = 0;
+            long errorCount = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart) {
+                    if (!convertRow(lineStart, contentEnd, field, output)) {
+                        field.set(lineStart, contentEnd);
+                        output.append(field).append(",ERROR\n");
+                        errorCount++;
+                    }
+                    rowCount++;
+                }
+                lineStart = lineEnd + 1;
+            }
+            rows.addAndGet(rowCount);
+            errors.addAndGet(errorCount);
+            bytesDone.addAndGet(limit);
+            return output.toString().getBytes(StandardCharsets.ISO_8859_1);
+        }
+
+        private boolean convertRow(int start, int end, AsciiSlice field, StringBuilder output) {
+            int firstComma = indexOf(',', start, end);
+            int secondComma = firstComma < 0 ? -1 : indexOf(',', firstComma + 1, end);
+            if (secondComma < 0 || secondComma - firstComma != 4 || end - secondComma != 4) {
+                return false;
+            }
+            int fromId = currencyAt(firstComma + 1);
+            int toId = currencyAt(secondComma + 1);
+            double rate = conversionService.rate(fromId, toId);
+            if (Double.isNaN(rate)) {
+                return false;
+            }
+            String from = CurrencyIndex.codeOf(fromId);
+            String to = CurrencyIndex.codeOf(toId);
+            try {
+                field.set(start, firstComma);
+                Money amount = Money.parse(field, from);
+                Money converted = amount.convert(rate, to, RoundingMode.HALF_EVEN);
+                amount.appendTo(output).append(',').append(from).append(',').append(to).append(',');
+                converted.appendTo(output).append('\n');
+                return true;
+            } catch (NumberFormatException | ArithmeticException e) {
+                return false;
+            }
+        }
+
+        private int currencyAt(int offset) {
+            return CurrencyIndex.find(chunk.get(offset), chunk.get(offset + 1), chunk.get(offset + 2));
+        }
+
+        private int indexOf(char c, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (chunk.get(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Reusable view of a range of ASCII bytes as a CharSequence, so fields can be parsed without copying
+    private static final class AsciiSlice implements CharSequence {
+        private final ByteBuffer bytes;
+        private int start;
+        private int end;
+
+        AsciiSlice(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        void set(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().subSequence(from, to);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
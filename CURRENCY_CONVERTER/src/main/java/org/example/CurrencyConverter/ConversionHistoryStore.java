@@ -0,0 +1,302 @@
+package org.example.CurrencyConverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Conversion history in a compact binary file of fixed-size records, plus a sparse block index.
+// Record i lives at offset i * RECORD_SIZE, so any page can be read directly. Every BLOCK_SIZE records
+// get a summary (time range and bitmasks of the currencies and pairs present) which lets
+// pair and date-range queries skip blocks without reading them.
+// Reads take no lock, so the UI never waits behind a batch being appended: records below the
+// published count are complete on disk, and block summaries are replaced rather than modified.
+class ConversionHistoryStore implements AutoCloseable {
+    static final int RECORD_SIZE = 32;  // timestamp(8) amount(8) converted(8) from(3) to(3) padding(2)
+    static final int BLOCK_SIZE = 1024;
+    private static final int SUMMARY_SIZE = 32; // minTime(8) maxTime(8) pairBits(8) currencyBits(8)
+    private static final int PAGE_RECORDS = 256;
+    private static final int CACHED_PAGES = 16;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    // One {minTime, maxTime, pairBits, currencyBits} per block; a published array is never modified
+    private volatile long[][] summaries = new long[0][];
+    // Recently read pages, one slot per page number modulo CACHED_PAGES
+    private final AtomicReferenceArray<Page> pageCache = new AtomicReferenceArray<>(CACHED_PAGES);
+    private volatile long count; // published after the records and their summaries
+
+    private static final class Page {
+        final long number;
+        final ByteBuffer records; // read with absolute gets only, so threads can share it
+
+        Page(long number, ByteBuffer records) {
+            this.number = number;
+            this.records = records;
+        }
+    }
+
+    ConversionHistoryStore(Path dataFile, Path indexFile) throws IOException {
+        this.data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Drop a torn record left by a crash mid-write
+        long records = data.size() / RECORD_SIZE;
+        data.truncate(records * RECORD_SIZE);
+        loadIndex(records);
+        this.count = records;
+    }
+
+    // Opens the store, importing the old text history the first time the binary file is created
+    static ConversionHistoryStore open(Path dataFile, Path indexFile, Path legacyTextFile) throws IOException {
+        boolean fresh = !Files.exists(dataFile);
+        ConversionHistoryStore store = new ConversionHistoryStore(dataFile, indexFile);
+        if (fresh && Files.exists(legacyTextFile)) {
+            store.importLegacy(legacyTextFile);
+        }
+        return store;
+    }
+
+    long size() {
+        return count;
+    }
+
+    // Appends records in one write and extends the block index; only one writer at a time.
+    // Readers see the new records once the write and the new summaries are complete.
+    synchronized void append(List<ConversionRecord> records) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * RECORD_SIZE);
+        for (ConversionRecord record : records) {
+            encode(record, buffer);
+        }
+        buffer.flip();
+        long first = count;
+        long position = first * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            position += data.write(buffer, position);
+        }
+        long[][] updated = summarize(summaries, first, records);
+        long end = first + records.size();
+        for (long block = first / BLOCK_SIZE; block < end / BLOCK_SIZE; block++) {
+            writeSummary(updated, (int) block); // Newly completed blocks
+        }
+        summaries = updated;
+        count = end;
+    }
+
+    // Reads one record, going through a small cache of recently used pages
+    ConversionRecord get(long i) throws IOException {
+        long published = count;
+        if (i < 0 || i >= published) {
+            throw new IndexOutOfBoundsException("Record " + i + " of " + published);
+        }
+        long number = i / PAGE_RECORDS;
+        int slot = (int) (number % CACHED_PAGES);
+        int recordsInPage = (int) Math.min(PAGE_RECORDS, published - number * PAGE_RECORDS);
+        Page page = pageCache.get(slot);
+        if (page == null || page.number != number || page.records.limit() < recordsInPage * RECORD_SIZE) {
+            page = new Page(number, readRecords(number * PAGE_RECORDS, recordsInPage));
+            pageCache.set(slot, page);
+        }
+        return decode(page.records, (int) (i % PAGE_RECORDS) * RECORD_SIZE);
+    }
+
+    // Finds up to 'limit' records in [fromTime, toTime] for the pair, oldest first; null currencies
+    // match anything. Only blocks whose summary can contain a match are read.
+    List<ConversionRecord> query(String from, String to, long fromTime, long toTime, int limit) throws IOException {
+        long published = count;
+        long[][] blocks = summaries; // read after count, so it covers at least the published records
+        List<ConversionRecord> matches = new ArrayList<>();
+        long pairBit = from != null && to != null ? bit(pairKey(from, to)) : 0;
+        long currencyBits = (from != null ? bit(currencyKey(from)) : 0) | (to != null ? bit(currencyKey(to)) : 0);
+        for (int block = 0; (long) block * BLOCK_SIZE < published && matches.size() < limit; block++) {
+            long[] summary = blocks[block];
+            if (summary[1] < fromTime || summary[0] > toTime
+                    || (summary[2] & pairBit) != pairBit || (summary[3] & currencyBits) != currencyBits) {
+                continue;
+            }
+            long first = (long) block * BLOCK_SIZE;
+            int n = (int) Math.min(BLOCK_SIZE, published - first);
+            ByteBuffer buffer = readRecords(first, n);
+            for (int r = 0; r < n && matches.size() < limit; r++) {
+                ConversionRecord record = decode(buffer, r * RECORD_SIZE);
+                if (record.timestamp() >= fromTime && record.timestamp() <= toTime
+                        && (from == null || from.equals(record.from())) && (to == null || to.equals(record.to()))) {
+                    matches.add(record);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private ByteBuffer readRecords(long first, int n) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(n * RECORD_SIZE);
+        long position = first * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            int read = data.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("History file is shorter than expected");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void encode(ConversionRecord record, ByteBuffer buffer) {
+        if (!CurrencyIndex.isCode(record.from()) || !CurrencyIndex.isCode(record.to())) {
+            throw new IllegalArgumentException("Not a currency pair: " + record.from() + " -> " + record.to());
+        }
+        buffer.putLong(record.timestamp());
+        buffer.putLong(record.amount().getMinorUnits());
+        buffer.putLong(record.converted().getMinorUnits());
+        buffer.put(record.from().getBytes(StandardCharsets.US_ASCII), 0, 3);
+        buffer.put(record.to().getBytes(StandardCharsets.US_ASCII), 0, 3);
+        buffer.putShort((short) 0);
+    }
+
+    private static ConversionRecord decode(ByteBuffer buffer, int offset) throws IOException {
+        String from = code(buffer, offset + 24);
+        String to = code(buffer, offset + 27);
+        return new ConversionRecord(buffer.getLong(offset),
+                Money.ofMinor(buffer.getLong(offset + 8), from), Money.ofMinor(buffer.getLong(offset + 16), to));
+    }
+
+    private static String code(ByteBuffer buffer, int offset) throws IOException {
+        byte c0 = buffer.get(offset);
+        byte c1 = buffer.get(offset + 1);
+        byte c2 = buffer.get(offset + 2);
+        int id = CurrencyIndex.idOf(c0, c1, c2);
+        if (id != CurrencyIndex.UNKNOWN) {
+            return CurrencyIndex.codeOf(id); // Interned, so decoding does not create new strings
+        }
+        if (!CurrencyIndex.isCode(c0, c1, c2)) {
+            throw new IOException("History record has an invalid currency code");
+        }
+        // The index is full; the record must still read back, so this code gets a string of its own
+        return new String(new char[] {(char) c0, (char) c1, (char) c2});
+    }
+
+    // Returns a copy of the summaries that also covers the records appended from index 'first' on;
+    // summaries that change are copied too, since readers may be looking at the old ones
+    private static long[][] summarize(long[][] summaries, long first, List<ConversionRecord> records) {
+        int blocks = (int) ((first + records.size() + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        long[][] updated = Arrays.copyOf(summaries, Math.max(blocks, summaries.length));
+        int copied = (int) (first / BLOCK_SIZE); // blocks before this one do not change
+        long recordIndex = first;
+        for (ConversionRecord record : records) {
+            int block = (int) (recordIndex++ / BLOCK_SIZE);
+            if (block >= copied) {
+                updated[block] = updated[block] == null
+                        ? new long[] {Long.MAX_VALUE, Long.MIN_VALUE, 0, 0} : updated[block].clone();
+                copied = block + 1;
+            }
+            long[] summary = updated[block];
+            summary[0] = Math.min(summary[0], record.timestamp());
+            summary[1] = Math.max(summary[1], record.timestamp());
+            summary[2] |= bit(pairKey(record.from(), record.to()));
+            summary[3] |= bit(currencyKey(record.from())) | bit(currencyKey(record.to()));
+        }
+        return updated;
+    }
+
+    private void writeSummary(long[][] summaries, int block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SUMMARY_SIZE);
+        for (long value : summaries[block]) {
+            buffer.putLong(value);
+        }
+        buffer.flip();
+        long position = (long) block * SUMMARY_SIZE;
+        while (buffer.hasRemaining()) {
+            position += index.write(buffer, position);
+        }
+    }
+
+    // Loads persisted summaries of complete blocks and rebuilds the rest from the data file
+    private void loadIndex(long count) throws IOException {
+        long completeBlocks = count / BLOCK_SIZE;
+        long stored = Math.min(index.size() / SUMMARY_SIZE, completeBlocks);
+        long[][] loaded = new long[(int) stored][];
+        if (stored > 0) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (stored * SUMMARY_SIZE));
+            while (buffer.hasRemaining() && index.read(buffer, buffer.position()) >= 0) {
+                // Keep reading until the buffer is full
+            }
+            buffer.flip();
+            for (int b = 0; b < stored; b++) {
+                loaded[b] = new long[] {buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong()};
+            }
+        }
+        index.truncate(stored * SUMMARY_SIZE);
+        for (long i = stored * BLOCK_SIZE; i < count; i += BLOCK_SIZE) {
+            int n = (int) Math.min(BLOCK_SIZE, count - i);
+            ByteBuffer buffer = readRecords(i, n);
+            List<ConversionRecord> records = new ArrayList<>(n);
+            for (int r = 0; r < n; r++) {
+                records.add(decode(buffer, r * RECORD_SIZE));
+            }
+            loaded = summarize(loaded, i, records);
+            if (n == BLOCK_SIZE) {
+                writeSummary(loaded, (int) (i / BLOCK_SIZE));
+            }
+        }
+        summaries = loaded;
+    }
+
+    // Imports lines such as "500.00 INR -> 5.74 EUR" from the old text file; their time is unknown (0)
+    private void importLegacy(Path textFile) throws IOException {
+        List<ConversionRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(textFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 5 || !parts[2].equals("->")
+                        || !CurrencyIndex.isCode(parts[1]) || !CurrencyIndex.isCode(parts[4])) {
+                    continue;
+                }
+                try {
+                    records.add(new ConversionRecord(0, legacyAmount(parts[0], parts[1]), legacyAmount(parts[3], parts[4])));
+                } catch (NumberFormatException | ArithmeticException e) {
+                    // Skip lines that are not valid history entries
+                }
+            }
+        }
+        if (!records.isEmpty()) {
+            append(records);
+        }
+    }
+
+    // Old entries always had two decimals, even for currencies like JPY, so round into the real scale
+    private static Money legacyAmount(String text, String currency) {
+        long minor = new BigDecimal(text).movePointRight(Money.scaleOf(currency))
+                .setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+        return Money.ofMinor(minor, currency);
+    }
+
+    private static int currencyKey(String code) {
+        return code.hashCode();
+    }
+
+    private static int pairKey(String from, String to) {
+        return from.hashCode() * 31 + to.hashCode() * 17;
+    }
+
+    private static long bit(int key) {
+        return 1L << ((key ^ (key >>> 16)) & 63);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        data.force(false);
+        data.close();
+        index.close();
+    }
+}
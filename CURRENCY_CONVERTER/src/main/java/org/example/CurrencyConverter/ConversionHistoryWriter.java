@@ -0,0 +1,107 @@
+package org.example.CurrencyConverter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Appends conversion history entries from a background thread.
+// Entries are queued without blocking the caller and written to the history store in batches,
+// flushing when a batch fills up or the oldest queued entry has waited long enough.
+class ConversionHistoryWriter implements AutoCloseable {
+    // Compared by identity, so no real entry can be mistaken for it
+    private static final ConversionRecord CLOSE = new ConversionRecord(0, null, null);
+
+    private final BlockingQueue<ConversionRecord> queue;
+    private final ConversionHistoryStore store;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Thread writer;
+    private final Logger logger = Logger.getLogger("CurrencyConverterLog");
+    private volatile boolean closed;
+
+    ConversionHistoryWriter(ConversionHistoryStore store, int capacity, int batchSize, Duration maxDelay) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.store = store;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.writer = new Thread(this::run, "conversion-history-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Queues an entry; returns false without waiting if the writer has fallen too far behind
+    boolean offer(ConversionRecord entry) {
+        return !closed && queue.offer(entry);
+    }
+
+    private void run() {
+        List<ConversionRecord> batch = new ArrayList<>(batchSize);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize && batch.get(batch.size() - 1) != CLOSE) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    ConversionRecord next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (removeClose(batch)) {
+                running = false;
+                queue.drainTo(batch); // Anything that raced with close still gets written
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private static boolean removeClose(List<ConversionRecord> batch) {
+        return batch.removeIf(entry -> entry == CLOSE);
+    }
+
+    private void write(List<ConversionRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            store.append(batch);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error saving conversion history: {0}", e.getMessage());
+        }
+    }
+
+    // Writes everything still queued and closes the store
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(CLOSE);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error closing conversion history: {0}", e.getMessage());
+        }
+    }
+}
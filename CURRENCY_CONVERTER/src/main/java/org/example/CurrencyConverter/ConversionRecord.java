@@ -0,0 +1,21 @@
+package org.example.CurrencyConverter;
+
+// One completed conversion as kept in the history
+record ConversionRecord(long timestamp, Money amount, Money converted) {
+
+    String from() {
+        return amount.getCurrency();
+    }
+
+    String to() {
+        return converted.getCurrency();
+    }
+
+    // History line such as "500.00 INR -> 5.74 EUR"
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(40);
+        amount.appendTo(sb).append(' ').append(from()).append(" -> ");
+        return converted.appendTo(sb).append(' ').append(to()).toString();
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.CurrencyConverter;
+
+import java.time.Instant;
+
+// Immutable N x N table of direct conversion rates between every pair of known currencies.
+// Built once per rate refresh so a conversion is two array indexes and a multiply.
+final class CrossRateMatrix {
+    private final int size;
+    private final double[] rates; // rates[from * size + to]
+    private final Instant asOf;
+
+    private CrossRateMatrix(int size, double[] rates, Instant asOf) {
+        this.size = size;
+        this.rates = rates;
+        this.asOf = asOf;
+    }
+
+    static CrossRateMatrix build(RateSnapshot snapshot) {
+        int size = CurrencyIndex.size();
+        double[] base = new double[size];
+        for (int id = 0; id < size; id++) {
+            base[id] = snapshot.rate(id);
+        }
+        double[] rates = new double[size * size];
+        for (int from = 0; from < size; from++) {
+            int row = from * size;
+            for (int to = 0; to < size; to++) {
+                rates[row + to] = base[to] / base[from]; // NaN when either rate is missing
+            }
+        }
+        return new CrossRateMatrix(size, rates, snapshot.getFetchedAt());
+    }
+
+    // Units of 'to' per unit of 'from', or NaN if the pair is not supported
+    double rate(int fromId, int toId) {
+        if (fromId < 0 || toId < 0 || fromId >= size || toId >= size) {
+            return Double.NaN;
+        }
+        return rates[fromId * size + toId];
+    }
+
+    Instant getAsOf() {
+        return asOf;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.CurrencyConverter;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Headless conversion API for callers that do not use the Swing UI.
+// Reads are lock-free against a cross-rate matrix that is swapped atomically on every rate refresh.
+public final class CurrencyConversionService implements AutoCloseable {
+    private final AtomicReference<CrossRateMatrix> matrix;
+    private ExchangeRateProvider provider;
+    private volatile RateHistoryStore history;
+
+    // Service using the built-in fallback rates
+    public CurrencyConversionService() {
+        this(RateSnapshot.fallback());
+    }
+
+    CurrencyConversionService(RateSnapshot initial) {
+        this.matrix = new AtomicReference<>(CrossRateMatrix.build(initial));
+    }
+
+    // Service that starts with the fallback rates and keeps itself current from the given endpoint
+    public static CurrencyConversionService startLive(URI endpoint, Duration refreshPeriod, Duration jitter) {
+        RateSource source = new HttpRateSource(endpoint.getHost(), endpoint, Duration.ofSeconds(10));
+        return startLive(source, RateSnapshot.fallback(), refreshPeriod, jitter, snapshot -> { });
+    }
+
+    // Service that fails over between the given endpoints, hedging slow requests, and keeps the last
+    // good rates in snapshotFile so the next start (even offline) begins with them. Every fetched
+    // snapshot is also recorded in historyDirectory for as-of conversions.
+    public static CurrencyConversionService startLive(List<URI> endpoints, Duration requestTimeout, Duration hedgeDelay,
+                                                      Path snapshotFile, Path historyDirectory,
+                                                      Duration refreshPeriod, Duration jitter) {
+        RateHistoryStore history;
+        try {
+            history = RateHistoryStore.open(historyDirectory);
+        } catch (IOException e) {
+            Logger.getLogger("CurrencyConverterLog").log(Level.SEVERE, "Error opening rate history: {0}", e.getMessage());
+            history = null;
+        }
+        RateHistoryStore recorder = history;
+        List<RateSource> sources = new ArrayList<>();
+        for (URI endpoint : endpoints) {
+            sources.add(new HttpRateSource(endpoint.getHost(), endpoint, requestTimeout));
+        }
+        RateSnapshot saved = RateSnapshotFile.load(snapshotFile);
+        CurrencyConversionService service = startLive(new RateAggregator(sources, hedgeDelay),
+                saved != null ? saved : RateSnapshot.fallback(), refreshPeriod, jitter, snapshot -> {
+                    try {
+                        RateSnapshotFile.save(snapshotFile, snapshot);
+                        if (recorder != null) {
+                            recorder.append(snapshot);
+                        }
+                    } catch (IOException e) {
+                        Logger.getLogger("CurrencyConverterLog").log(Level.WARNING, "Error saving exchange rates: {0}",
+                                e.getMessage());
+                    }
+                });
+        service.history = history;
+        return service;
+    }
+
+    static CurrencyConversionService startLive(RateSource source, RateSnapshot initial, Duration refreshPeriod,
+                                               Duration jitter, Consumer<RateSnapshot> onRefresh) {
+        CurrencyConversionService service = new CurrencyConversionService(initial);
+        service.provider = new ExchangeRateProvider(source, initial, refreshPeriod, jitter, snapshot -> {
+            service.update(snapshot);
+            onRefresh.accept(snapshot);
+        });
+        service.provider.start();
+        return service;
+    }
+
+    // Publishes new rates; conversions already in flight finish on the old matrix
+    void update(RateSnapshot snapshot) {
+        matrix.set(CrossRateMatrix.build(snapshot));
+    }
+
+    // Units of 'to' per unit of 'from' for CurrencyIndex IDs, or NaN if not supported
+    public double rate(int fromId, int toId) {
+        return matrix.get().rate(fromId, toId);
+    }
+
+    public double rate(String from, String to) {
+        return rate(CurrencyIndex.find(from), CurrencyIndex.find(to));
+    }
+
+    // Converts a plain amount; throws IllegalArgumentException if either currency has no rate
+    public double convert(String from, String to, double amount) {
+        double rate = rate(from, to);
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Conversion not supported for: " + from + " to " + to);
+        }
+        return amount * rate;
+    }
+
+    // Converts an exact amount, rounding once into the target currency's minor units
+    public Money convert(Money amount, String to, RoundingMode rounding) {
+        double rate = rate(amount.getCurrency(), to);
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Conversion not supported for: " + amount.getCurrency() + " to " + to);
+        }
+        return amount.convert(rate, to, rounding);
+    }
+
+    // Converts at the rates that were current at the given instant; throws IllegalArgumentException
+    // if no rates were recorded for either currency by then. Runs in O(log n) over the recorded snapshots.
+    public double convert(String from, String to, double amount, Instant asOf) {
+        double rate = history != null ? history.rate(CurrencyIndex.find(from), CurrencyIndex.find(to), asOf) : Double.NaN;
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("No rate recorded for: " + from + " to " + to + " as of " + asOf);
+        }
+        return amount * rate;
+    }
+
+    public Money convert(Money amount, String to, Instant asOf, RoundingMode rounding) {
+        String from = amount.getCurrency();
+        double rate = history != null ? history.rate(CurrencyIndex.find(from), CurrencyIndex.find(to), asOf) : Double.NaN;
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("No rate recorded for: " + from + " to " + to + " as of " + asOf);
+        }
+        return amount.convert(rate, to, rounding);
+    }
+
+    // When the rates in use were fetched (the epoch for the built-in fallback rates)
+    public Instant getRatesAsOf() {
+        return matrix.get().getAsOf();
+    }
+
+    @Override
+    public void close() {
+        if (provider != null) {
+            provider.close();
+        }
+        if (history != null) {
+            try {
+                history.close();
+            } catch (IOException e) {
+                Logger.getLogger("CurrencyConverterLog").log(Level.WARNING, "Error closing rate history: {0}",
+                        e.getMessage());
+            }
+        }
+    }
+}
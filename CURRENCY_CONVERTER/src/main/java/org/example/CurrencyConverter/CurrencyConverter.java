@@ -4,17 +4,29 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.FileHandler;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
-import org.json.JSONObject;
 
 // Factory Pattern: Factory class for UI components
 class ComponentFactory {
@@ -34,104 +46,193 @@ class ComponentFactory {
         return new JLabel(text);
     }
 
-    public static JTextArea createTextArea(int rows, int columns) {
-        return new JTextArea(rows, columns);
+    // Fixed cell sizes let the list render only the visible rows of a very long model
+    public static JList<String> createHistoryList(ListModel<String> model, int visibleRows) {
+        JList<String> list = new JList<>(model);
+        list.setPrototypeCellValue("000000000.00 XXX -> 000000000.00 XXX");
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 2);
+        list.setVisibleRowCount(visibleRows);
+        return list;
     }
 
-    public static JScrollPane createScrollPane(JTextArea textArea) {
-        return new JScrollPane(textArea);
-    }
-}
-
-// Adapter Pattern: Adapter for different exchange rate APIs
-class ExchangeRateAdapter {
-    private static final String API_URL = "https://openexchangerates.org/api/latest.json?app_id=YOUR_API_KEY";
-
-    public Map<String, Double> fetchExchangeRates() throws Exception {
-        URL url = new URL(API_URL);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-        String inputLine;
-        StringBuilder response = new StringBuilder();
-        while ((inputLine = in.readLine()) != null) {
-            response.append(inputLine);
-        }
-        in.close();
-
-        JSONObject jsonObject = new JSONObject(response.toString());
-        JSONObject rates = jsonObject.getJSONObject("rates");
-        Map<String, Double> exchangeRates = new HashMap<>();
-        for (String key : rates.keySet()) {
-            exchangeRates.put(key, rates.getDouble(key));
-        }
-        return exchangeRates;
+    public static JScrollPane createScrollPane(Component view) {
+        return new JScrollPane(view);
     }
 }
 
 // Observer Pattern: Observer interface and subject class
 interface Observer {
-    void update(String conversion);
+    void update(ConversionRecord conversion);
 }
 
+// Called off the EDT; entries are collected and added to the list in one batch per frame
 class ConversionHistory implements Observer {
-    private JTextArea historyArea;
-
-    public ConversionHistory(JTextArea historyArea) {
-        this.historyArea = historyArea;
+    private static final int FRAME_MILLIS = 16;
+
+    private HistoryListModel historyModel;
+    private JList<String> historyList;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final javax.swing.Timer flushTimer;
+
+    public ConversionHistory(HistoryListModel historyModel, JList<String> historyList) {
+        this.historyModel = historyModel;
+        this.historyList = historyList;
+        this.flushTimer = new javax.swing.Timer(FRAME_MILLIS, e -> flush());
+        this.flushTimer.setRepeats(false);
     }
 
     @Override
-    public void update(String conversion) {
-        historyArea.append(conversion + "\n");
+    public void update(ConversionRecord conversion) {
+        pending.add(conversion.toString());
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushTimer.start();
+        }
+    }
+
+    // Runs on the EDT
+    private void flush() {
+        flushScheduled.set(false);
+        List<String> entries = new ArrayList<>();
+        for (String entry; (entry = pending.poll()) != null; ) {
+            entries.add(entry);
+        }
+        if (!entries.isEmpty()) {
+            historyModel.addAll(entries);
+            historyList.ensureIndexIsVisible(historyModel.getSize() - 1);
+        }
     }
 }
 
+// Delivers each conversion to every observer asynchronously. Every observer has its own queue
+// drained by at most one thread at a time, so a slow observer never blocks the caller or the others.
 class CurrencyConverterSubject {
-    private List<Observer> observers = new ArrayList<>();
+    private final List<ObserverMailbox> observers = new CopyOnWriteArrayList<>();
+    private final Executor dispatcher = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "observer-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public void addObserver(Observer observer) {
-        observers.add(observer);
+        observers.add(new ObserverMailbox(observer));
     }
 
-    public void notifyObservers(String conversion) {
-        for (Observer observer : observers) {
-            observer.update(conversion);
+    public void notifyObservers(ConversionRecord conversion) {
+        for (ObserverMailbox mailbox : observers) {
+            mailbox.post(conversion);
+        }
+    }
+
+    private final class ObserverMailbox {
+        private final Observer observer;
+        private final Queue<ConversionRecord> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        ObserverMailbox(Observer observer) {
+            this.observer = observer;
+        }
+
+        void post(ConversionRecord conversion) {
+            queue.add(conversion);
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                for (ConversionRecord conversion; (conversion = queue.poll()) != null; ) {
+                    try {
+                        observer.update(conversion);
+                    } catch (RuntimeException e) {
+                        Logger.getLogger("CurrencyConverterLog").log(Level.WARNING, "Observer failed", e);
+                    }
+                }
+                draining.set(false);
+                // Something may have been posted after the last poll but before the flag was cleared
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
         }
     }
 }
 
 // Main Application
 public class CurrencyConverter extends JFrame {
+    private static final LatencyHistogram CONVERSION_LATENCY = Metrics.shared().histogram("conversion.latency");
+    private static final LongAdder CONVERSIONS = Metrics.shared().counter("conversions");
+    private static final LongAdder INVALID_AMOUNTS = Metrics.shared().counter("conversions.invalidAmount");
+    private static final LongAdder UNSUPPORTED = Metrics.shared().counter("conversions.unsupported");
+    private static final LongAdder HISTORY_DROPPED = Metrics.shared().counter("history.dropped");
     private JComboBox<String> fromCurrency;
     private JComboBox<String> toCurrency;
     private JTextField amountField;
     private JLabel resultLabel;
-    private JTextArea historyArea;
-    private Map<String, Double> exchangeRates = new HashMap<>();
+    private final StringBuilder resultText = new StringBuilder(64); // reused, only touched on the EDT
+    private JList<String> historyList;
+    private CurrencyConversionService conversionService;
     private CurrencyConverterSubject subject = new CurrencyConverterSubject();
     private Logger logger = Logger.getLogger("CurrencyConverterLog");
-    private static final String HISTORY_FILE = "conversion_history.txt";
+    private static final String HISTORY_FILE = "conversion_history.txt"; // Old text format, imported once
+    private static final String HISTORY_DATA_FILE = "conversion_history.bin";
+    private static final String HISTORY_INDEX_FILE = "conversion_history.idx";
+    private static final String RATES_FILE = "exchange_rates.bin";
+    private static final String RATE_HISTORY_DIR = "rate_history";
+    private static final String LOG_FILE = "CurrencyConverter.log";
+    private static final String METRICS_FILE = "CurrencyConverter-metrics.txt";
+    private ConversionHistoryStore historyStore;
+    private ConversionHistoryWriter historyWriter;
+    private AsyncLogHandler logHandler;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+    private static final int SEARCH_LIMIT = 1000;
+    private static final DateTimeFormatter SEARCH_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
     public CurrencyConverter() {
-        // Set up logging
+        // Set up logging; records are written to the file by a background thread, rolling over at 10 MB
         try {
-            FileHandler fh = new FileHandler("CurrencyConverter.log");
-            logger.addHandler(fh);
-            SimpleFormatter formatter = new SimpleFormatter();
-            fh.setFormatter(formatter);
+            logHandler = new AsyncLogHandler(Paths.get(LOG_FILE), 8192, 10 * 1024 * 1024, 5);
+            logger.addHandler(logHandler);
+            logger.setUseParentHandlers(false); // The console handler would write synchronously
         } catch (IOException e) {
             e.printStackTrace();
         }
 
+        // Metrics can be watched live over JMX and are written out as text on exit
+        MetricsExporter.register(Metrics.shared(), "org.example.CurrencyConverter:type=Metrics");
+
+        // Conversion history is written by a background thread and flushed on exit
+        try {
+            historyStore = ConversionHistoryStore.open(Paths.get(HISTORY_DATA_FILE), Paths.get(HISTORY_INDEX_FILE),
+                    Paths.get(HISTORY_FILE));
+            historyWriter = new ConversionHistoryWriter(historyStore, 10_000, 256, Duration.ofMillis(200));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error opening conversion history: {0}", e.getMessage());
+        }
+
+        // Closing the window shuts down in order before System.exit starts the shutdown hooks. The hook
+        // only covers other exits such as Ctrl-C: the JVM runs hooks concurrently, and JUL's own hook
+        // closes the log handler and detaches it from the logger, so lines logged then may be lost.
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutDown, "shutdown"));
+
         // Set up the frame
         setTitle("Currency Converter");
         setSize(400, 300);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // after the window listeners have run
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutDown();
+            }
+        });
         setLocationRelativeTo(null);
 
-        // Fetch the exchange rates
-        fetchExchangeRates();
+        // Fetch the exchange rates in the background, failing over to the backup API; conversions use
+        // the rates saved by the last run (or the fallback rates) until then
+        conversionService = CurrencyConversionService.startLive(
+                List.of(URI.create(ExchangeRateAdapter.API_URL), URI.create(ExchangeRateAdapter.BACKUP_API_URL)),
+                Duration.ofSeconds(5), Duration.ofSeconds(1), Paths.get(RATES_FILE), Paths.get(RATE_HISTORY_DIR),
+                Duration.ofSeconds(Long.getLong("currencyconverter.refreshSeconds", 3600)),
+                Duration.ofSeconds(Long.getLong("currencyconverter.refreshJitterSeconds", 60)));
 
         // Create components
         String[] currencies = {"USD", "EUR", "GBP", "INR", "JPY", "AUD", "CAD"};
@@ -139,13 +240,15 @@ public class CurrencyConverter extends JFrame {
         toCurrency = ComponentFactory.createCurrencyComboBox(currencies);
         amountField = ComponentFactory.createTextField(10);
         JButton convertButton = ComponentFactory.createButton("Convert");
+        JButton searchButton = ComponentFactory.createButton("Past 30 Days");
         resultLabel = ComponentFactory.createLabel("Converted Amount: ");
-        historyArea = ComponentFactory.createTextArea(10, 30);
-        historyArea.setEditable(false);
-        JScrollPane scrollPane = ComponentFactory.createScrollPane(historyArea);
+        // History rows are loaded from the store lazily as they scroll into view
+        HistoryListModel historyModel = new HistoryListModel(historyStore);
+        historyList = ComponentFactory.createHistoryList(historyModel, 10);
+        JScrollPane scrollPane = ComponentFactory.createScrollPane(historyList);
 
         // Add observer for conversion history
-        ConversionHistory historyObserver = new ConversionHistory(historyArea);
+        ConversionHistory historyObserver = new ConversionHistory(historyModel, historyList);
         subject.addObserver(historyObserver);
 
         // Add action listener to the convert button
@@ -156,6 +259,14 @@ public class CurrencyConverter extends JFrame {
             }
         });
 
+        // Add action listener to the history search button
+        searchButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showPastConversions();
+            }
+        });
+
         // Set up the layout
         setLayout(new GridBagLayout());
         GridBagConstraints gbc = new GridBagConstraints();
@@ -192,83 +303,122 @@ public class CurrencyConverter extends JFrame {
         gbc.fill = GridBagConstraints.BOTH;
         add(scrollPane, gbc);
 
-        // Load conversion history
-        loadConversionHistory();
+        gbc.gridy = 5;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        add(searchButton, gbc);
+
+        // Start at the most recent history entry
+        historyList.ensureIndexIsVisible(historyModel.getSize() - 1);
 
         // Display the frame
         setVisible(true);
     }
 
-    private void fetchExchangeRates() {
-        ExchangeRateAdapter adapter = new ExchangeRateAdapter();
-        try {
-            exchangeRates = adapter.fetchExchangeRates();
-        } catch (Exception e) {
-            logger.severe("Error fetching exchange rates: " + e.getMessage());
-            e.printStackTrace();
-            // Fallback to default exchange rates in case of failure
-            exchangeRates.put("USD", 1.0);
-            exchangeRates.put("EUR", 0.85);
-            exchangeRates.put("GBP", 0.75);
-            exchangeRates.put("INR", 74.0);
-            exchangeRates.put("JPY", 110.0);
-            exchangeRates.put("AUD", 1.4);
-            exchangeRates.put("CAD", 1.3);
-        }
-    }
-
     private void convertCurrency() {
+        long start = System.nanoTime();
         String from = (String) fromCurrency.getSelectedItem();
         String to = (String) toCurrency.getSelectedItem();
-        double amount;
+        Money amount;
         try {
-            amount = Double.parseDouble(amountField.getText());
-            if (amount <= 0) {
+            // Parsed exactly in the currency's minor units
+            amount = Money.parse(amountField.getText().trim(), from);
+            if (!amount.isPositive()) {
                 throw new NumberFormatException();
             }
         } catch (NumberFormatException e) {
+            INVALID_AMOUNTS.increment();
             resultLabel.setText("Invalid amount. Please enter a number greater than zero.");
-            logger.warning("Invalid amount entered: " + amountField.getText());
+            logger.log(Level.WARNING, "Invalid amount entered: {0}", amountField.getText());
             return;
         }
 
-        if (!exchangeRates.containsKey(from) || !exchangeRates.containsKey(to)) {
+        double rate = conversionService.rate(from, to);
+        if (Double.isNaN(rate)) {
+            UNSUPPORTED.increment();
             resultLabel.setText("Conversion not supported.");
-            logger.warning("Conversion not supported for: " + from + " to " + to);
+            logger.log(Level.WARNING, "Conversion not supported for: {0} to {1}", new Object[] {from, to});
             return;
         }
 
-        double fromRate = exchangeRates.get(from);
-        double toRate = exchangeRates.get(to);
-        double convertedAmount = amount * (toRate / fromRate);
-        String resultText = String.format("Converted Amount: %.2f %s", convertedAmount, to);
-        resultLabel.setText(resultText);
+        Money convertedAmount = amount.convert(rate, to, RoundingMode.HALF_EVEN);
+        resultText.setLength(0);
+        convertedAmount.appendTo(resultText.append("Converted Amount: ")).append(' ').append(to);
+        resultLabel.setText(resultText.toString());
 
         // Add to conversion history
-        String historyEntry = String.format("%.2f %s -> %.2f %s", amount, from, convertedAmount, to);
+        ConversionRecord historyEntry = new ConversionRecord(System.currentTimeMillis(), amount, convertedAmount);
         subject.notifyObservers(historyEntry);
 
         // Save conversion history
         saveConversionHistory(historyEntry);
+        CONVERSIONS.increment();
+        CONVERSION_LATENCY.recordSince(start);
     }
 
-    private void loadConversionHistory() {
-        try (BufferedReader br = new BufferedReader(new FileReader(HISTORY_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                historyArea.append(line + "\n");
+    // Shows the stored conversions of the selected pair from the last 30 days. The store is searched
+    // on a worker thread; it skips blocks whose index rules out the pair or the date range.
+    private void showPastConversions() {
+        String from = (String) fromCurrency.getSelectedItem();
+        String to = (String) toCurrency.getSelectedItem();
+        if (historyStore == null) {
+            JOptionPane.showMessageDialog(this, "Conversion history is not available.");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long since = now - Duration.ofDays(30).toMillis();
+        new SwingWorker<List<ConversionRecord>, Void>() {
+            @Override
+            protected List<ConversionRecord> doInBackground() throws IOException {
+                return historyStore.query(from, to, since, now, SEARCH_LIMIT);
             }
-        } catch (IOException e) {
-            logger.warning("Error loading conversion history: " + e.getMessage());
+
+            @Override
+            protected void done() {
+                List<ConversionRecord> matches;
+                try {
+                    matches = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    logger.log(Level.WARNING, "Error searching conversion history: {0}", e.getMessage());
+                    JOptionPane.showMessageDialog(CurrencyConverter.this, "Conversion history could not be searched.");
+                    return;
+                }
+                DefaultListModel<String> model = new DefaultListModel<>();
+                for (ConversionRecord record : matches) {
+                    model.addElement(SEARCH_TIME_FORMAT.format(Instant.ofEpochMilli(record.timestamp())) + "  " + record);
+                }
+                if (model.isEmpty()) {
+                    model.addElement("No conversions found.");
+                }
+                JOptionPane.showMessageDialog(CurrencyConverter.this,
+                        ComponentFactory.createScrollPane(ComponentFactory.createHistoryList(model, 15)),
+                        from + " to " + to + ", last 30 days", JOptionPane.PLAIN_MESSAGE);
+            }
+        }.execute();
+    }
+
+    private void saveConversionHistory(ConversionRecord historyEntry) {
+        if (historyWriter == null || !historyWriter.offer(historyEntry)) {
+            HISTORY_DROPPED.increment();
+            logger.log(Level.SEVERE, "Error saving conversion history: entry dropped: {0}", historyEntry);
         }
     }
 
-    private void saveConversionHistory(String historyEntry) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(HISTORY_FILE, true))) {
-            bw.write(historyEntry);
-            bw.newLine();
+    // Flushes the history, then writes the metrics, and closes the log handler last so that
+    // anything the earlier steps log still reaches the file. Runs once, whichever exit path comes first.
+    private void shutDown() {
+        if (!shutDown.compareAndSet(false, true)) {
+            return;
+        }
+        if (historyWriter != null) {
+            historyWriter.close();
+        }
+        try {
+            Files.writeString(Paths.get(METRICS_FILE), Metrics.shared().dump());
         } catch (IOException e) {
-            logger.severe("Error saving conversion history: " + e.getMessage());
+            logger.log(Level.WARNING, "Error writing metrics: {0}", e.getMessage());
+        }
+        if (logHandler != null) {
+            logHandler.close();
         }
     }
 
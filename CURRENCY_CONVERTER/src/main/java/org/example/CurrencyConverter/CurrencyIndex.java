@@ -0,0 +1,92 @@
+package org.example.CurrencyConverter;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Interns three-letter currency codes as small dense integers so rates can live in primitive arrays.
+// Lookups are lock-free; only the first sighting of a new code takes a lock.
+public final class CurrencyIndex {
+    public static final int MAX_CURRENCIES = 512;
+    public static final int UNKNOWN = -1;
+
+    private static final int KEY_SPACE = 26 * 26 * 26;
+    private static final AtomicIntegerArray ID_BY_KEY = new AtomicIntegerArray(KEY_SPACE);
+    private static final AtomicReferenceArray<String> CODES = new AtomicReferenceArray<>(MAX_CURRENCIES);
+    private static final Object LOCK = new Object();
+    private static volatile int count;
+
+    private CurrencyIndex() {
+    }
+
+    // Returns the ID for the code, registering it if new; UNKNOWN if it is not three letters A-Z
+    // or all MAX_CURRENCIES IDs are taken
+    public static int idOf(String code) {
+        if (code == null || code.length() != 3) {
+            return UNKNOWN;
+        }
+        return idOf(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    public static int idOf(int c0, int c1, int c2) {
+        int key = key(c0, c1, c2);
+        if (key < 0) {
+            return UNKNOWN;
+        }
+        int id = ID_BY_KEY.get(key) - 1; // Stored plus one so the default 0 means "absent"
+        return id >= 0 ? id : register(key, c0, c1, c2);
+    }
+
+    // Returns the ID if the code is already known, without registering it
+    public static int find(String code) {
+        if (code == null || code.length() != 3) {
+            return UNKNOWN;
+        }
+        return find(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    public static int find(int c0, int c1, int c2) {
+        int key = key(c0, c1, c2);
+        return key < 0 ? UNKNOWN : ID_BY_KEY.get(key) - 1;
+    }
+
+    // True if the code is three letters A-Z, whether or not it has an ID
+    public static boolean isCode(String code) {
+        return code != null && code.length() == 3 && isCode(code.charAt(0), code.charAt(1), code.charAt(2));
+    }
+
+    public static boolean isCode(int c0, int c1, int c2) {
+        return key(c0, c1, c2) >= 0;
+    }
+
+    public static String codeOf(int id) {
+        return CODES.get(id);
+    }
+
+    public static int size() {
+        return count;
+    }
+
+    private static int register(int key, int c0, int c1, int c2) {
+        synchronized (LOCK) {
+            int id = ID_BY_KEY.get(key) - 1;
+            if (id >= 0) {
+                return id;
+            }
+            if (count == MAX_CURRENCIES) {
+                return UNKNOWN;
+            }
+            id = count;
+            CODES.set(id, new String(new char[] {(char) c0, (char) c1, (char) c2}).intern());
+            ID_BY_KEY.set(key, id + 1);
+            count = id + 1;
+            return id;
+        }
+    }
+
+    private static int key(int c0, int c1, int c2) {
+        if (c0 < 'A' || c0 > 'Z' || c1 < 'A' || c1 > 'Z' || c2 < 'A' || c2 > 'Z') {
+            return -1;
+        }
+        return ((c0 - 'A') * 26 + (c1 - 'A')) * 26 + (c2 - 'A');
+    }
+}
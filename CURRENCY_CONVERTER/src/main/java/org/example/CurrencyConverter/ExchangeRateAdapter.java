@@ -0,0 +1,43 @@
+package org.example.CurrencyConverter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+// Adapter Pattern: Adapter for different exchange rate APIs
+class ExchangeRateAdapter {
+    static final String API_URL = "https://openexchangerates.org/api/latest.json?app_id=YOUR_API_KEY";
+    static final String BACKUP_API_URL = "https://open.er-api.com/v6/latest/USD";
+    private static final LatencyHistogram FETCH_LATENCY = Metrics.shared().histogram("rates.fetch.latency");
+    private static final LongAdder FETCHES_OK = Metrics.shared().counter("rates.fetch.ok");
+    private static final LongAdder FETCHES_FAILED = Metrics.shared().counter("rates.fetch.failed");
+
+    // Sends the request without blocking the caller; the future completes with rates indexed by CurrencyIndex ID
+    public CompletableFuture<double[]> fetchExchangeRatesAsync(HttpClient client, URI uri, Duration timeout) {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new IOException("Server returned HTTP response code: "
+                                    + response.statusCode() + " for URL: " + uri);
+                        }
+                        return RatesParser.parse(body);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .whenComplete((rates, error) -> {
+                    FETCH_LATENCY.recordSince(start);
+                    (error == null ? FETCHES_OK : FETCHES_FAILED).increment();
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.CurrencyConverter;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps an up-to-date rate snapshot by fetching in the background.
+// Readers never block: they always see the last published snapshot.
+class ExchangeRateProvider implements AutoCloseable {
+    private final AtomicReference<RateSnapshot> snapshot;
+    private final RateSource source;
+    private final long refreshMillis;
+    private final long jitterMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<RateSnapshot> onRefresh;
+    private final Logger logger = Logger.getLogger("CurrencyConverterLog");
+
+    ExchangeRateProvider(RateSource source, RateSnapshot initial, Duration refreshPeriod, Duration jitter,
+                         Consumer<RateSnapshot> onRefresh) {
+        this.source = source;
+        this.onRefresh = onRefresh;
+        this.snapshot = new AtomicReference<>(initial);
+        this.refreshMillis = refreshPeriod.toMillis();
+        this.jitterMillis = jitter.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "exchange-rate-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    RateSnapshot current() {
+        return snapshot.get();
+    }
+
+    // Starts fetching right away and then every refresh period (plus or minus jitter)
+    void start() {
+        scheduler.execute(this::refreshAndReschedule);
+    }
+
+    // Fetches once and publishes the result; the previous snapshot stays in place on failure
+    CompletableFuture<RateSnapshot> refresh() {
+        return source.fetch()
+                .thenApply(rates -> {
+                    RateSnapshot fresh = new RateSnapshot(rates, Instant.now());
+                    snapshot.set(fresh);
+                    onRefresh.accept(fresh);
+                    return fresh;
+                });
+    }
+
+    private void refreshAndReschedule() {
+        refresh().whenComplete((fresh, error) -> {
+            if (error != null) {
+                logger.log(Level.SEVERE, "Error fetching exchange rates: {0}", unwrap(error).getMessage());
+            }
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(this::refreshAndReschedule, nextDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    // Strips the wrappers added by CompletableFuture and the HTTP adapter
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    // Jitter spreads refreshes out so many clients do not hit the API at the same moment
+    private long nextDelayMillis() {
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0;
+        return Math.max(0, refreshMillis + jitter);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.CurrencyConverter;
+
+import javax.swing.AbstractListModel;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// List model over the history store: rows are read from disk only when the list asks for them,
+// so startup does not depend on how much history there is. Entries from this session are kept in memory.
+@SuppressWarnings("serial") // List models are never serialized
+class HistoryListModel extends AbstractListModel<String> {
+    private final ConversionHistoryStore store;
+    private final int storedCount;
+    private final List<String> sessionEntries = new ArrayList<>();
+
+    HistoryListModel(ConversionHistoryStore store) {
+        this.store = store;
+        this.storedCount = store == null ? 0 : (int) Math.min(store.size(), Integer.MAX_VALUE - 1_000_000);
+    }
+
+    // Adds a batch of entries with a single change event
+    void addAll(List<String> entries) {
+        int first = getSize();
+        sessionEntries.addAll(entries);
+        fireIntervalAdded(this, first, getSize() - 1);
+    }
+
+    @Override
+    public int getSize() {
+        return storedCount + sessionEntries.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        if (index >= storedCount) {
+            return sessionEntries.get(index - storedCount);
+        }
+        try {
+            return store.get(index).toString();
+        } catch (IOException e) {
+            return "(history entry could not be read)";
+        }
+    }
+}
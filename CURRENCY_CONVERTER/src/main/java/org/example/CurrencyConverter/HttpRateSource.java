@@ -0,0 +1,37 @@
+package org.example.CurrencyConverter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// Rate source backed by an HTTP endpoint returning the {"rates": {...}} payload
+class HttpRateSource implements RateSource {
+    private final ExchangeRateAdapter adapter = new ExchangeRateAdapter();
+    private final String name;
+    private final URI endpoint;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    HttpRateSource(String name, URI endpoint, Duration timeout) {
+        this.name = name;
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Duration timeout() {
+        return timeout;
+    }
+
+    @Override
+    public CompletableFuture<double[]> fetch() {
+        return adapter.fetchExchangeRatesAsync(client, endpoint, timeout);
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.CurrencyConverter;
+
+import java.math.RoundingMode;
+
+// Exact amount of money in a currency's minor units (cents, or whole yen for JPY)
+public final class Money {
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+    private static final double[] DOUBLE_POWERS_OF_TEN = {1.0, 10.0, 100.0, 1_000.0, 10_000.0};
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    // Number of decimal places used by a currency (ISO 4217 minor units)
+    public static int scaleOf(String currency) {
+        switch (currency) {
+            case "JPY":
+            case "KRW":
+            case "VND":
+            case "CLP":
+            case "ISK":
+                return 0;
+            case "BHD":
+            case "KWD":
+            case "OMR":
+            case "JOD":
+            case "TND":
+                return 3;
+            default:
+                return 2;
+        }
+    }
+
+    // Parses text such as "20", "0.74" or "-3.5" exactly; more decimals than the currency allows is an error
+    public static Money parse(CharSequence text, String currency) {
+        int scale = scaleOf(currency);
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int decimals = -1; // -1 until the decimal point is seen
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && decimals < 0 && scale > 0) {
+                    decimals = 0;
+                } else if (c >= '0' && c <= '9' && decimals < scale) {
+                    units = Math.addExact(Math.multiplyExact(units, 10L), c - '0');
+                    digits++;
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else {
+                    throw new NumberFormatException("Invalid amount: " + text);
+                }
+            }
+            if (digits == 0) {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+            units = Math.multiplyExact(units, POWERS_OF_TEN[scale - Math.max(decimals, 0)]);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount too large: " + text);
+        }
+        return new Money(negative ? -units : units, currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getScale() {
+        return scaleOf(currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    // Converts at the given rate (units of target per unit of this currency), rounding once with the given mode
+    public Money convert(double rate, String targetCurrency, RoundingMode rounding) {
+        int shift = scaleOf(targetCurrency) - getScale();
+        double exact = shift >= 0
+                ? minorUnits * rate * DOUBLE_POWERS_OF_TEN[shift]
+                : minorUnits * rate / DOUBLE_POWERS_OF_TEN[-shift];
+        return new Money(round(exact, rounding), targetCurrency);
+    }
+
+    static long round(double value, RoundingMode rounding) {
+        if (Double.isNaN(value) || Math.abs(value) >= 0x1p63) {
+            throw new ArithmeticException("Amount out of range: " + value);
+        }
+        switch (rounding) {
+            case FLOOR:
+                return (long) Math.floor(value);
+            case CEILING:
+                return (long) Math.ceil(value);
+            case DOWN:
+                return (long) value;
+            case UP:
+                return (long) (value < 0 ? Math.floor(value) : Math.ceil(value));
+            case HALF_UP:
+                return (long) (value < 0 ? -Math.floor(-value + 0.5) : Math.floor(value + 0.5));
+            case HALF_DOWN:
+                return (long) (value < 0 ? -Math.ceil(-value - 0.5) : Math.ceil(value - 0.5));
+            case HALF_EVEN:
+                return (long) Math.rint(value);
+            default:
+                if (value != Math.rint(value)) {
+                    throw new ArithmeticException("Rounding necessary: " + value);
+                }
+                return (long) value;
+        }
+    }
+
+    public double toDouble() {
+        return minorUnits / DOUBLE_POWERS_OF_TEN[getScale()];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    // Appends the plain decimal amount, e.g. "1480.00" or "5400" for JPY
+    public StringBuilder appendTo(StringBuilder sb) {
+        int scale = getScale();
+        long units = Math.abs(minorUnits);
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        sb.append(units / POWERS_OF_TEN[scale]);
+        if (scale > 0) {
+            long fraction = units % POWERS_OF_TEN[scale];
+            sb.append('.');
+            for (long p = POWERS_OF_TEN[scale - 1]; p > 1 && fraction < p; p /= 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+        return sb;
+    }
+
+    // Plain decimal amount without the currency code, e.g. "1480.00" or "5400" for JPY
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(24)).toString();
+    }
+}
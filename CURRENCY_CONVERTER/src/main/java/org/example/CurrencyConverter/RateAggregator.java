@@ -0,0 +1,148 @@
+package org.example.CurrencyConverter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Fetches rates from several sources with failover and hedging.
+// Sources are tried best-first, ranked by their recent latency and failure rate. If the current
+// source has not answered within the hedge delay, or fails, the next one is started as well;
+// the first successful answer wins. Slower answers that arrive later still update the statistics.
+class RateAggregator implements RateSource {
+    private static final double SMOOTHING = 0.2;
+
+    private final List<SourceStats> sources = new ArrayList<>();
+    private final Executor hedgeTimer;
+    private final Duration timeout;
+    private final Logger logger = Logger.getLogger("CurrencyConverterLog");
+
+    // Sources in order of preference until statistics say otherwise
+    RateAggregator(List<? extends RateSource> sources, Duration hedgeDelay) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one rate source is required");
+        }
+        Duration longest = Duration.ZERO;
+        for (RateSource source : sources) {
+            this.sources.add(new SourceStats(source));
+            longest = source.timeout().compareTo(longest) > 0 ? source.timeout() : longest;
+        }
+        this.timeout = longest.plus(hedgeDelay.multipliedBy(sources.size() - 1));
+        this.hedgeTimer = CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String name() {
+        return "aggregate";
+    }
+
+    @Override
+    public Duration timeout() {
+        return timeout;
+    }
+
+    @Override
+    public CompletableFuture<double[]> fetch() {
+        Attempt attempt = new Attempt(ranked());
+        attempt.launchNext();
+        return attempt.result;
+    }
+
+    // Current ranking, best source first
+    List<SourceStats> ranked() {
+        List<SourceStats> order = new ArrayList<>(sources);
+        order.sort(Comparator.comparingDouble(SourceStats::score)); // stable, so ties keep configured order
+        return order;
+    }
+
+    // One fetch across the ranked sources
+    private final class Attempt {
+        final CompletableFuture<double[]> result = new CompletableFuture<>();
+        private final List<SourceStats> order;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        Attempt(List<SourceStats> order) {
+            this.order = order;
+        }
+
+        void launchNext() {
+            int index = next.getAndIncrement();
+            if (index >= order.size() || result.isDone()) {
+                return;
+            }
+            SourceStats stats = order.get(index);
+            long start = System.nanoTime();
+            CompletableFuture<double[]> fetch;
+            try {
+                fetch = stats.source.fetch();
+            } catch (RuntimeException e) {
+                fetch = CompletableFuture.failedFuture(e);
+            }
+            fetch.orTimeout(stats.source.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((rates, error) -> {
+                        if (error == null) {
+                            stats.recordSuccess(System.nanoTime() - start);
+                            result.complete(rates);
+                        } else {
+                            stats.recordFailure();
+                            logger.log(Level.WARNING, "Rate source {0} failed: {1}",
+                                    new Object[] {stats.source.name(), ExchangeRateProvider.unwrap(error)});
+                            if (failed.incrementAndGet() == order.size()) {
+                                result.completeExceptionally(error);
+                            } else {
+                                launchNext();
+                            }
+                        }
+                    });
+            // Hedge: start the next source too if this one is slow
+            if (index + 1 < order.size()) {
+                hedgeTimer.execute(() -> {
+                    if (!result.isDone() && next.get() == index + 1) {
+                        launchNext();
+                    }
+                });
+            }
+        }
+    }
+
+    // Exponentially weighted latency and failure rate of one source
+    static final class SourceStats {
+        final RateSource source;
+        private volatile double latencyMillis;
+        private volatile double failureRate;
+
+        SourceStats(RateSource source) {
+            this.source = source;
+        }
+
+        synchronized void recordSuccess(long elapsedNanos) {
+            double millis = elapsedNanos / 1e6;
+            latencyMillis = latencyMillis == 0 ? millis : latencyMillis + SMOOTHING * (millis - latencyMillis);
+            failureRate -= SMOOTHING * failureRate;
+        }
+
+        synchronized void recordFailure() {
+            failureRate += SMOOTHING * (1 - failureRate);
+        }
+
+        // Lower is better; a source that keeps failing costs as much as waiting out its timeout
+        double score() {
+            return latencyMillis + failureRate * source.timeout().toMillis();
+        }
+
+        double getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        double getFailureRate() {
+            return failureRate;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.CurrencyConverter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Every fetched rate snapshot, kept for as-of queries.
+// New snapshots are appended to a small tail file; once SEGMENT_ROWS have built up they are sealed into
+// a compressed, memory-mapped RateSegment and the tail starts over. Queries binary-search the segments by
+// time range and then the segment's timestamp column, so finding the snapshot in force at any instant is
+// O(log n). Readers never lock: they use an immutable view that is replaced on every append.
+class RateHistoryStore implements AutoCloseable {
+    static final int SEGMENT_ROWS = 1024;
+    private static final String TAIL_FILE = "rates.tail";
+
+    private final Path directory;
+    private final FileChannel tail;
+    private final List<RateSegment> segments = new ArrayList<>();
+    private final List<RateSnapshot> tailRows = new ArrayList<>();
+    private volatile View view;
+
+    private RateHistoryStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "rates-*.seg")) {
+            List<Path> sorted = new ArrayList<>();
+            files.forEach(sorted::add);
+            sorted.sort(null); // Zero-padded sequence numbers sort in time order
+            for (Path file : sorted) {
+                segments.add(RateSegment.open(file));
+            }
+        }
+        this.tail = FileChannel.open(directory.resolve(TAIL_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadTail();
+        publish();
+    }
+
+    static RateHistoryStore open(Path directory) throws IOException {
+        return new RateHistoryStore(directory);
+    }
+
+    // Records a fetched snapshot; snapshots must arrive in fetch-time order
+    synchronized void append(RateSnapshot snapshot) throws IOException {
+        long time = snapshot.getFetchedAt().toEpochMilli();
+        View current = view;
+        if (current.size() > 0 && time <= current.lastTimestamp()) {
+            return; // Already recorded, e.g. the snapshot saved by the previous run
+        }
+        ByteBuffer row = encodeRow(snapshot);
+        long position = tail.size();
+        while (row.hasRemaining()) {
+            position += tail.write(row, position);
+        }
+        tail.force(false);
+        tailRows.add(snapshot);
+        if (tailRows.size() >= SEGMENT_ROWS) {
+            sealTail();
+        }
+        publish();
+    }
+
+    // Number of snapshots recorded
+    long size() {
+        return view.size();
+    }
+
+    // Units of 'to' per unit of 'from' in the snapshot that was current at the instant,
+    // or NaN if there was none yet or it lacked either currency
+    double rate(int fromId, int toId, Instant asOf) {
+        return view.rate(fromId, toId, asOf.toEpochMilli());
+    }
+
+    // Turns the tail into a segment; the tail is only emptied once the segment is safely in place
+    private void sealTail() throws IOException {
+        Path file = directory.resolve(String.format("rates-%06d.seg", segments.size()));
+        RateSegment.write(file, tailRows);
+        segments.add(RateSegment.open(file));
+        tailRows.clear();
+        tail.truncate(0);
+        tail.force(true);
+    }
+
+    // Tail row: [fetchedAt(8)][count(2)] then count x [code(3)][rate(8)]
+    private static ByteBuffer encodeRow(RateSnapshot snapshot) {
+        int currencies = CurrencyIndex.size();
+        ByteBuffer row = ByteBuffer.allocate(10 + currencies * 11);
+        row.putLong(snapshot.getFetchedAt().toEpochMilli()).putShort((short) 0);
+        int count = 0;
+        for (int id = 0; id < currencies; id++) {
+            double rate = snapshot.rate(id);
+            if (!Double.isNaN(rate)) {
+                String code = CurrencyIndex.codeOf(id);
+                row.put((byte) code.charAt(0)).put((byte) code.charAt(1)).put((byte) code.charAt(2)).putDouble(rate);
+                count++;
+            }
+        }
+        row.putShort(8, (short) count);
+        return row.flip();
+    }
+
+    // Reads back the tail, dropping a row torn by a crash and rows already sealed into a segment
+    private void loadTail() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) tail.size());
+        while (buffer.hasRemaining() && tail.read(buffer, buffer.position()) > 0) {
+            // Read the whole file
+        }
+        buffer.flip();
+        long sealedUntil = segments.isEmpty() ? Long.MIN_VALUE : segments.get(segments.size() - 1).lastTimestamp();
+        long valid = 0;
+        while (buffer.remaining() >= 10) {
+            long time = buffer.getLong();
+            int count = buffer.getShort() & 0xFFFF;
+            if (buffer.remaining() < count * 11) {
+                break;
+            }
+            double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+            Arrays.fill(rates, Double.NaN);
+            for (int i = 0; i < count; i++) {
+                int id = CurrencyIndex.idOf(buffer.get() & 0xFF, buffer.get() & 0xFF, buffer.get() & 0xFF);
+                double rate = buffer.getDouble();
+                if (id >= 0) {
+                    rates[id] = rate;
+                }
+            }
+            valid = buffer.position();
+            if (time > sealedUntil) {
+                tailRows.add(new RateSnapshot(rates, Instant.ofEpochMilli(time)));
+            }
+        }
+        tail.truncate(valid);
+    }
+
+    private void publish() {
+        view = new View(segments.toArray(new RateSegment[0]), tailRows.toArray(new RateSnapshot[0]));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        tail.close();
+    }
+
+    // Immutable picture of the store at one moment
+    private static final class View {
+        private final RateSegment[] segments;
+        private final RateSnapshot[] tail;
+
+        View(RateSegment[] segments, RateSnapshot[] tail) {
+            this.segments = segments;
+            this.tail = tail;
+        }
+
+        long size() {
+            long rows = tail.length;
+            for (RateSegment segment : segments) {
+                rows += segment.rows();
+            }
+            return rows;
+        }
+
+        long lastTimestamp() {
+            return tail.length > 0 ? tail[tail.length - 1].getFetchedAt().toEpochMilli()
+                    : segments[segments.length - 1].lastTimestamp();
+        }
+
+        double rate(int fromId, int toId, long epochMillis) {
+            // The tail holds the newest snapshots, so check it first
+            int low = 0;
+            int high = tail.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (tail[mid].getFetchedAt().toEpochMilli() <= epochMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (high >= 0) {
+                return tail[high].rate(toId) / tail[high].rate(fromId);
+            }
+
+            // Otherwise the last segment that starts at or before the instant
+            low = 0;
+            high = segments.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (segments[mid].firstTimestamp() <= epochMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (high < 0) {
+                return Double.NaN;
+            }
+            RateSegment segment = segments[high];
+            int row = segment.rowAt(epochMillis);
+            return segment.rate(row, toId) / segment.rate(row, fromId);
+        }
+    }
+}
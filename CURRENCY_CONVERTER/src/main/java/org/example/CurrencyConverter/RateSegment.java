@@ -0,0 +1,237 @@
+package org.example.CurrencyConverter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+// An immutable, memory-mapped block of rate snapshots stored column by column.
+// Layout: [magic][rows][columns][pad], one 24-byte descriptor per currency column, the fetch times
+// as a sorted long column, then each currency's column. A column is encoded frame-of-reference style:
+// every rate is a decimal with at most 9 places, stored as an unsigned 16- or 32-bit offset from the
+// column's smallest value, so most columns take 2 bytes per snapshot instead of 8. Columns whose values
+// do not fit are stored as raw doubles. Any row can be decoded directly, without reading earlier rows.
+final class RateSegment {
+    private static final int MAGIC = 0x52534731; // "RSG1"
+    private static final int HEADER_SIZE = 16;
+    private static final int COLUMN_SIZE = 24;   // code(3) encoding(1) scale(1) padding(3) base(8) dataOffset(8)
+    private static final byte U16 = 1;
+    private static final byte U32 = 2;
+    private static final byte RAW = 3;
+    private static final int MAX_SCALE = 9;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final int timestampsOffset;
+    // Column descriptor position for each CurrencyIndex ID, or -1 if the segment has no such column
+    private final int[] columnByCurrency = new int[CurrencyIndex.MAX_CURRENCIES];
+
+    private RateSegment(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a rate segment");
+        }
+        this.rows = buffer.getInt(4);
+        int columns = buffer.getInt(8);
+        this.timestampsOffset = HEADER_SIZE + columns * COLUMN_SIZE;
+        Arrays.fill(columnByCurrency, -1);
+        for (int c = 0; c < columns; c++) {
+            int position = HEADER_SIZE + c * COLUMN_SIZE;
+            int id = CurrencyIndex.idOf(buffer.get(position) & 0xFF, buffer.get(position + 1) & 0xFF,
+                    buffer.get(position + 2) & 0xFF);
+            if (id >= 0) {
+                columnByCurrency[id] = position;
+            }
+        }
+    }
+
+    static RateSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new RateSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long timestamp(int row) {
+        return buffer.getLong(timestampsOffset + row * 8);
+    }
+
+    long firstTimestamp() {
+        return timestamp(0);
+    }
+
+    long lastTimestamp() {
+        return timestamp(rows - 1);
+    }
+
+    // Index of the last row fetched at or before the time, or -1 if every row is later
+    int rowAt(long epochMillis) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (timestamp(mid) <= epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    // Rate for a currency ID in the given row, or NaN if that snapshot had none
+    double rate(int row, int currencyId) {
+        int column = currencyId >= 0 && currencyId < columnByCurrency.length ? columnByCurrency[currencyId] : -1;
+        if (column < 0) {
+            return Double.NaN;
+        }
+        byte encoding = buffer.get(column + 3);
+        long base = buffer.getLong(column + 8);
+        int data = (int) buffer.getLong(column + 16);
+        long offset;
+        switch (encoding) {
+            case U16:
+                offset = buffer.getChar(data + row * 2);
+                if (offset == 0xFFFF) {
+                    return Double.NaN;
+                }
+                break;
+            case U32:
+                offset = Integer.toUnsignedLong(buffer.getInt(data + row * 4));
+                if (offset == 0xFFFFFFFFL) {
+                    return Double.NaN;
+                }
+                break;
+            case RAW:
+                return buffer.getDouble(data + row * 8);
+            default:
+                return Double.NaN;
+        }
+        return (base + offset) / POWERS_OF_TEN[buffer.get(column + 4)];
+    }
+
+    // Writes the snapshots (oldest first) as a new segment file, replacing the target atomically
+    static void write(Path file, List<RateSnapshot> snapshots) throws IOException {
+        int rows = snapshots.size();
+        int currencies = CurrencyIndex.size();
+        int[] ids = new int[currencies];
+        int columns = 0;
+        for (int id = 0; id < currencies; id++) {
+            for (RateSnapshot snapshot : snapshots) {
+                if (!Double.isNaN(snapshot.rate(id))) {
+                    ids[columns++] = id;
+                    break;
+                }
+            }
+        }
+
+        // Pick an encoding per column, then lay the columns out after the timestamps
+        byte[] encodings = new byte[columns];
+        byte[] scales = new byte[columns];
+        long[] bases = new long[columns];
+        long[] dataOffsets = new long[columns];
+        long position = HEADER_SIZE + (long) columns * COLUMN_SIZE + (long) rows * 8;
+        double[] values = new double[rows];
+        for (int c = 0; c < columns; c++) {
+            for (int r = 0; r < rows; r++) {
+                values[r] = snapshots.get(r).rate(ids[c]);
+            }
+            chooseEncoding(values, c, encodings, scales, bases);
+            position = (position + 7) & ~7L;
+            dataOffsets[c] = position;
+            position += (long) rows * width(encodings[c]);
+        }
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Rate segment too large: " + position + " bytes");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) position);
+        out.putInt(MAGIC).putInt(rows).putInt(columns).putInt(0);
+        for (int c = 0; c < columns; c++) {
+            String code = CurrencyIndex.codeOf(ids[c]);
+            out.put((byte) code.charAt(0)).put((byte) code.charAt(1)).put((byte) code.charAt(2))
+                    .put(encodings[c]).put(scales[c]).put((byte) 0).putShort((short) 0)
+                    .putLong(bases[c]).putLong(dataOffsets[c]);
+        }
+        for (RateSnapshot snapshot : snapshots) {
+            out.putLong(snapshot.getFetchedAt().toEpochMilli());
+        }
+        for (int c = 0; c < columns; c++) {
+            out.position((int) dataOffsets[c]);
+            double scale = POWERS_OF_TEN[scales[c]];
+            for (RateSnapshot snapshot : snapshots) {
+                double value = snapshot.rate(ids[c]);
+                switch (encodings[c]) {
+                    case U16:
+                        out.putChar(Double.isNaN(value) ? (char) 0xFFFF : (char) (Math.round(value * scale) - bases[c]));
+                        break;
+                    case U32:
+                        out.putInt(Double.isNaN(value) ? -1 : (int) (Math.round(value * scale) - bases[c]));
+                        break;
+                    case RAW:
+                        out.putDouble(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Finds the fewest decimal places that represent every value exactly, then the narrowest offset width
+    private static void chooseEncoding(double[] values, int column, byte[] encodings, byte[] scales, long[] bases) {
+        for (int scale = 0; scale <= MAX_SCALE; scale++) {
+            double power = POWERS_OF_TEN[scale];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            boolean exact = true;
+            for (double value : values) {
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                double scaled = value * power;
+                if (Math.abs(scaled) >= 0x1p53 || Math.rint(scaled) / power != value) {
+                    exact = false;
+                    break;
+                }
+                long q = (long) Math.rint(scaled);
+                min = Math.min(min, q);
+                max = Math.max(max, q);
+            }
+            if (!exact) {
+                continue;
+            }
+            scales[column] = (byte) scale;
+            bases[column] = min;
+            long range = max - min;
+            encodings[column] = range < 0xFFFF ? U16 : range < 0xFFFFFFFFL ? U32 : RAW;
+            return;
+        }
+        encodings[column] = RAW;
+    }
+
+    private static int width(byte encoding) {
+        return encoding == U16 ? 2 : encoding == U32 ? 4 : encoding == RAW ? 8 : 0;
+    }
+}
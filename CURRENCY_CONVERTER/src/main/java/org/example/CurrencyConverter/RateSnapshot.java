@@ -0,0 +1,43 @@
+package org.example.CurrencyConverter;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+// Immutable set of exchange rates (units per USD) indexed by CurrencyIndex ID, and when they were fetched
+final class RateSnapshot {
+    private final double[] rates;
+    private final Instant fetchedAt;
+
+    // Takes ownership of the array; absent currencies must be NaN
+    RateSnapshot(double[] rates, Instant fetchedAt) {
+        this.rates = rates;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Built-in rates used until the first successful fetch
+    static RateSnapshot fallback() {
+        double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+        Arrays.fill(rates, Double.NaN);
+        rates[CurrencyIndex.idOf("USD")] = 1.0;
+        rates[CurrencyIndex.idOf("EUR")] = 0.85;
+        rates[CurrencyIndex.idOf("GBP")] = 0.75;
+        rates[CurrencyIndex.idOf("INR")] = 74.0;
+        rates[CurrencyIndex.idOf("JPY")] = 110.0;
+        rates[CurrencyIndex.idOf("AUD")] = 1.4;
+        rates[CurrencyIndex.idOf("CAD")] = 1.3;
+        return new RateSnapshot(rates, Instant.EPOCH);
+    }
+
+    // Rate for a currency ID, or NaN if this snapshot has none
+    double rate(int currencyId) {
+        return currencyId >= 0 && currencyId < rates.length ? rates[currencyId] : Double.NaN;
+    }
+
+    double rate(String currency) {
+        return rate(CurrencyIndex.find(currency));
+    }
+
+    Instant getFetchedAt() {
+        return fetchedAt;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.CurrencyConverter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps the last good rate snapshot on disk so the application starts with real rates, even offline.
+// Currency IDs are assigned per process, so the file stores codes: [magic][fetchedAt][count]{code(3) rate(8)}*
+final class RateSnapshotFile {
+    private static final int MAGIC = 0x52534e31; // "RSN1"
+
+    private RateSnapshotFile() {
+    }
+
+    // Loads the saved snapshot, or returns null if there is none or it cannot be read
+    static RateSnapshot load(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a rate snapshot file: " + file);
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(in.readLong());
+            int count = in.readInt();
+            double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+            Arrays.fill(rates, Double.NaN);
+            for (int i = 0; i < count; i++) {
+                int id = CurrencyIndex.idOf(in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+                if (id < 0) {
+                    throw new IOException("Invalid currency code in " + file);
+                }
+                rates[id] = in.readDouble();
+            }
+            return new RateSnapshot(rates, fetchedAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            Logger.getLogger("CurrencyConverterLog").log(Level.WARNING, "Error reading saved exchange rates: {0}",
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    // Writes to a temporary file and renames it over the old one, so a crash never leaves a partial file
+    static void save(Path file, RateSnapshot snapshot) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int currencies = CurrencyIndex.size();
+        int count = 0;
+        for (int id = 0; id < currencies; id++) {
+            if (!Double.isNaN(snapshot.rate(id))) {
+                count++;
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(snapshot.getFetchedAt().toEpochMilli());
+            out.writeInt(count);
+            for (int id = 0; id < currencies; id++) {
+                double rate = snapshot.rate(id);
+                if (!Double.isNaN(rate)) {
+                    String code = CurrencyIndex.codeOf(id);
+                    out.writeByte(code.charAt(0));
+                    out.writeByte(code.charAt(1));
+                    out.writeByte(code.charAt(2));
+                    out.writeDouble(rate);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.CurrencyConverter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// One place exchange rates can come from. Implementations must not block the caller;
+// the future completes with rates (units per USD) indexed by CurrencyIndex ID, absent currencies NaN.
+interface RateSource {
+    String name();
+
+    // How long a single fetch may take before it counts as failed
+    Duration timeout();
+
+    CompletableFuture<double[]> fetch();
+}
@@ -0,0 +1,269 @@
+package org.example.CurrencyConverter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Streaming reader for the {"rates": {"USD": 1.0, ...}} payload.
+// Reads bytes straight from the stream into a double[] indexed by CurrencyIndex ID,
+// without building a String, a JSON tree or boxed Doubles. Absent currencies are NaN.
+final class RatesParser {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final byte[] RATES_KEY = {'r', 'a', 't', 'e', 's'};
+    private static final int MAX_KEY = 16;
+    private static final int MAX_NUMBER = 64;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private final byte[] key = new byte[MAX_KEY];
+    private final char[] number = new char[MAX_NUMBER];
+    private int keyLength;
+    private int position;
+    private int limit;
+
+    private RatesParser(InputStream in) {
+        this.in = in;
+    }
+
+    static double[] parse(InputStream in) throws IOException {
+        return new RatesParser(in).parseDocument();
+    }
+
+    private double[] parseDocument() throws IOException {
+        double[] rates = null;
+        expect('{');
+        if (peekNonWhitespace() == '}') {
+            read();
+        } else {
+            do {
+                readKey();
+                expect(':');
+                if (keyEquals(RATES_KEY)) {
+                    rates = parseRates();
+                } else {
+                    skipValue();
+                }
+            } while (nextSeparator('}'));
+        }
+        if (rates == null) {
+            throw new IOException("Response has no rates object");
+        }
+        return rates;
+    }
+
+    private double[] parseRates() throws IOException {
+        double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+        Arrays.fill(rates, Double.NaN);
+        expect('{');
+        if (peekNonWhitespace() == '}') {
+            read();
+            return rates;
+        }
+        do {
+            readKey();
+            expect(':');
+            int id = keyLength == 3 ? CurrencyIndex.idOf(key[0], key[1], key[2]) : CurrencyIndex.UNKNOWN;
+            int c = peekNonWhitespace();
+            if (id != CurrencyIndex.UNKNOWN && (c == '-' || (c >= '0' && c <= '9'))) {
+                rates[id] = readNumber();
+            } else {
+                skipValue();
+            }
+        } while (nextSeparator('}'));
+        return rates;
+    }
+
+    // Reads an object key into the key buffer; long or escaped keys are marked as unmatchable
+    private void readKey() throws IOException {
+        expect('"');
+        keyLength = 0;
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                skipEscape();
+                keyLength = MAX_KEY + 1;
+            } else if (keyLength < MAX_KEY) {
+                key[keyLength++] = (byte) c;
+            } else {
+                keyLength = MAX_KEY + 1;
+            }
+        }
+    }
+
+    private boolean keyEquals(byte[] expected) {
+        if (keyLength != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < keyLength; i++) {
+            if (key[i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses a JSON number; common short decimals are converted exactly without allocating
+    private double readNumber() throws IOException {
+        int length = 0;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean negative = false;
+        boolean simple = true;
+        int c = peek();
+        if (c == '-') {
+            negative = true;
+            number[length++] = (char) read();
+        }
+        boolean inFraction = false;
+        while (true) {
+            c = peek();
+            if (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (inFraction) {
+                        scale++;
+                    }
+                } else {
+                    simple = false;
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else if (c == 'e' || c == 'E' || c == '+' || (c == '-' && length > 0)) {
+                simple = false;
+            } else {
+                break;
+            }
+            if (length == MAX_NUMBER) {
+                throw new IOException("Number too long");
+            }
+            number[length++] = (char) read();
+        }
+        if (length == 0 || (negative && length == 1)) {
+            throw new IOException("Invalid number");
+        }
+        // Both operands are exact doubles here, so one division gives the correctly rounded result
+        if (simple && digits <= 15 && scale < POWERS_OF_TEN.length) {
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(number, 0, length));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number: " + new String(number, 0, length));
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = peekNonWhitespace();
+        if (c == '"') {
+            read();
+            skipStringBody();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = read();
+                if (c == '"') {
+                    skipStringBody();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            // Number or literal: runs until the next delimiter
+            while (true) {
+                c = peek();
+                if (c == ',' || c == '}' || c == ']' || c <= ' ') {
+                    return;
+                }
+                read();
+            }
+        }
+    }
+
+    private void skipStringBody() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                skipEscape();
+            }
+        }
+    }
+
+    private void skipEscape() throws IOException {
+        if (read() == 'u') {
+            for (int i = 0; i < 4; i++) {
+                read();
+            }
+        }
+    }
+
+    // Consumes ',' (returns true) or the closing character (returns false)
+    private boolean nextSeparator(char close) throws IOException {
+        int c = peekNonWhitespace();
+        read();
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw new IOException("Expected ',' or '" + close + "' but found '" + (char) c + "'");
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekNonWhitespace();
+        if (c != expected) {
+            throw new IOException("Expected '" + expected + "' but found '" + (char) c + "'");
+        }
+        read();
+    }
+
+    private int peekNonWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            read();
+            c = peek();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("Unexpected end of rates response");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.CurrencyConverter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Queries through the block index, and lock-free reads while a batch is being appended
+class ConversionHistoryStoreTest {
+    private static final String[][] PAIRS = {{"USD", "EUR"}, {"EUR", "USD"}, {"GBP", "INR"}, {"USD", "JPY"}};
+
+    private Path dir;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("history-test");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void queryReturnsThePairWithinTheDateRange() throws IOException {
+        List<ConversionRecord> all = records(0, 3 * ConversionHistoryStore.BLOCK_SIZE + 100);
+        try (ConversionHistoryStore store = open()) {
+            store.append(all.subList(0, 1500));
+            store.append(all.subList(1500, all.size()));
+            assertQueries(store, all);
+        }
+        // Summaries of complete blocks are read back from the index file, the rest rebuilt
+        try (ConversionHistoryStore store = open()) {
+            assertEquals(all.size(), store.size());
+            assertQueries(store, all);
+        }
+    }
+
+    @Test
+    void queryStopsAtTheLimit() throws IOException {
+        List<ConversionRecord> all = records(0, 2000);
+        try (ConversionHistoryStore store = open()) {
+            store.append(all);
+            List<ConversionRecord> matches = store.query("USD", "EUR", 0, Long.MAX_VALUE, 10);
+            assertEquals(expected(all, "USD", "EUR", 0, Long.MAX_VALUE).subList(0, 10), matches);
+        }
+    }
+
+    @Test
+    void readsSeeCompleteRecordsWhileAppending() throws Exception {
+        int batches = 200;
+        int batchSize = 50;
+        try (ConversionHistoryStore store = open()) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int b = 0; b < batches; b++) {
+                        store.append(records(b * batchSize, batchSize));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            Thread reader = new Thread(() -> {
+                try {
+                    long last = 0;
+                    while (last < (long) batches * batchSize) {
+                        long size = store.size();
+                        for (long i = Math.max(0, size - 300); i < size; i++) {
+                            assertEquals(record((int) i), store.get(i));
+                        }
+                        if (size > 0) {
+                            store.query("GBP", "INR", 0, Long.MAX_VALUE, Integer.MAX_VALUE).forEach(r ->
+                                    assertEquals(record((int) r.timestamp()), r));
+                        }
+                        last = size;
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            writer.start();
+            reader.start();
+            writer.join();
+            reader.join();
+
+            assertNull(failure.get());
+            assertEquals((long) batches * batchSize, store.size());
+        }
+    }
+
+    private void assertQueries(ConversionHistoryStore store, List<ConversionRecord> all) throws IOException {
+        long[][] ranges = {{0, Long.MAX_VALUE}, {1000, 1100}, {2047, 2049}, {3000, 3200}, {5000, 6000}};
+        for (long[] range : ranges) {
+            for (String[] pair : PAIRS) {
+                assertEquals(expected(all, pair[0], pair[1], range[0], range[1]),
+                        store.query(pair[0], pair[1], range[0], range[1], Integer.MAX_VALUE));
+            }
+            assertEquals(expected(all, "USD", null, range[0], range[1]),
+                    store.query("USD", null, range[0], range[1], Integer.MAX_VALUE));
+            assertEquals(expected(all, null, "USD", range[0], range[1]),
+                    store.query(null, "USD", range[0], range[1], Integer.MAX_VALUE));
+        }
+    }
+
+    private static List<ConversionRecord> expected(List<ConversionRecord> all, String from, String to,
+            long fromTime, long toTime) {
+        List<ConversionRecord> matches = new ArrayList<>();
+        for (ConversionRecord record : all) {
+            if (record.timestamp() >= fromTime && record.timestamp() <= toTime
+                    && (from == null || from.equals(record.from())) && (to == null || to.equals(record.to()))) {
+                matches.add(record);
+            }
+        }
+        return matches;
+    }
+
+    private ConversionHistoryStore open() throws IOException {
+        return new ConversionHistoryStore(dir.resolve("history.bin"), dir.resolve("history.idx"));
+    }
+
+    private static List<ConversionRecord> records(int first, int n) {
+        List<ConversionRecord> records = new ArrayList<>(n);
+        for (int i = first; i < first + n; i++) {
+            records.add(record(i));
+        }
+        return records;
+    }
+
+    // Record i has timestamp i, so each block covers its own time range
+    private static ConversionRecord record(int i) {
+        String[] pair = PAIRS[(i / 7) % PAIRS.length];
+        return new ConversionRecord(i, Money.ofMinor(100 + i, pair[0]), Money.ofMinor(3 * i, pair[1]));
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.CurrencyConverter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+// Background refresh against a local stub of the rates API
+class ExchangeRateProviderTest {
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void refreshPublishesFetchedRates() throws Exception {
+        try (StubRateServer server = new StubRateServer().rates("USD", 1.0, "EUR", 0.5, "INR", 80.0)) {
+            AtomicReference<RateSnapshot> published = new AtomicReference<>();
+            try (ExchangeRateProvider provider = new ExchangeRateProvider(source(server), RateSnapshot.fallback(),
+                    HOUR, Duration.ZERO, published::set)) {
+                Instant before = Instant.now();
+                RateSnapshot fresh = provider.refresh().get(5, TimeUnit.SECONDS);
+
+                assertSame(fresh, provider.current());
+                assertSame(fresh, published.get());
+                assertEquals(0.5, fresh.rate("EUR"), 0.0);
+                assertEquals(80.0, fresh.rate("INR"), 0.0);
+                assertTrue(Double.isNaN(fresh.rate("JPY")), "Currencies missing from the feed have no rate");
+                assertFalse(fresh.getFetchedAt().isBefore(before));
+            }
+        }
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() throws Exception {
+        try (StubRateServer server = new StubRateServer().status(503)) {
+            RateSnapshot initial = RateSnapshot.fallback();
+            AtomicReference<RateSnapshot> published = new AtomicReference<>();
+            try (ExchangeRateProvider provider = new ExchangeRateProvider(source(server), initial, HOUR,
+                    Duration.ZERO, published::set)) {
+                assertThrows(ExecutionException.class, () -> provider.refresh().get(5, TimeUnit.SECONDS));
+                assertSame(initial, provider.current());
+                assertNull(published.get());
+            }
+        }
+    }
+
+    @Test
+    void serviceConvertsWithRatesFromTheBackgroundRefresh() throws Exception {
+        try (StubRateServer server = new StubRateServer().rates("USD", 1.0, "EUR", 0.5)) {
+            try (CurrencyConversionService service = CurrencyConversionService.startLive(server.uri(), HOUR,
+                    Duration.ZERO)) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (service.rate("USD", "EUR") != 0.5 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertEquals(0.5, service.rate("USD", "EUR"), 0.0);
+                assertEquals(2.0, service.rate("EUR", "USD"), 1e-12);
+                assertTrue(Double.isNaN(service.rate("USD", "INR")), "INR is no longer in the published rates");
+                assertEquals(1, server.requests());
+            }
+        }
+    }
+
+    private static RateSource source(StubRateServer server) {
+        return new HttpRateSource("stub", server.uri(), Duration.ofSeconds(5));
+    }
+}
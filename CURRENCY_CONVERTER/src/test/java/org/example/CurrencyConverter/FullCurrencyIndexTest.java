@@ -0,0 +1,83 @@
+package org.example.CurrencyConverter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Conversion history keeps working once every CurrencyIndex ID is taken.
+// This fills the JVM-wide index, which is why the pom runs each test class in its own JVM.
+class FullCurrencyIndexTest {
+    private Path dir;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("full-index-test");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void historyWithCodesTheIndexHasNoRoomForReadsBack() throws IOException {
+        // Written while the codes could still be indexed would not prove anything, so fill it first
+        Files.writeString(dir.resolve("history.txt"), "500.00 ZZY -> 5.74 ZZX\n");
+        fillIndex();
+        assertEquals(CurrencyIndex.UNKNOWN, CurrencyIndex.idOf("ZZX"));
+
+        ConversionRecord record = new ConversionRecord(42, Money.ofMinor(12_345, "ZZZ"), Money.ofMinor(678, "ZZX"));
+        try (ConversionHistoryStore store = open()) {
+            assertEquals(1, store.size(), "The legacy line was imported");
+            assertEquals(new ConversionRecord(0, Money.ofMinor(50_000, "ZZY"), Money.ofMinor(574, "ZZX")), store.get(0));
+            store.append(List.of(record));
+            assertEquals(record, store.get(1));
+            assertEquals(List.of(record), store.query("ZZZ", "ZZX", 0, Long.MAX_VALUE, 10));
+        }
+        // Reopening rebuilds the block summaries by decoding the records
+        try (ConversionHistoryStore store = open()) {
+            assertEquals(record, store.get(1));
+        }
+    }
+
+    @Test
+    void recordsThatAreNotCurrencyCodesAreRejected() throws IOException {
+        ConversionRecord record = new ConversionRecord(1, Money.ofMinor(100, "usd"), Money.ofMinor(90, "EUR"));
+        try (ConversionHistoryStore store = open()) {
+            assertThrows(IllegalArgumentException.class, () -> store.append(List.of(record)));
+            assertEquals(0, store.size());
+        }
+    }
+
+    // Registers codes from AAA up until every ID is taken, leaving the ZZ? codes unregistered
+    private static void fillIndex() {
+        for (char c0 = 'A'; c0 <= 'Y' && CurrencyIndex.size() < CurrencyIndex.MAX_CURRENCIES; c0++) {
+            for (char c1 = 'A'; c1 <= 'Z' && CurrencyIndex.size() < CurrencyIndex.MAX_CURRENCIES; c1++) {
+                for (char c2 = 'A'; c2 <= 'Z' && CurrencyIndex.size() < CurrencyIndex.MAX_CURRENCIES; c2++) {
+                    CurrencyIndex.idOf(c0, c1, c2);
+                }
+            }
+        }
+        assertTrue(CurrencyIndex.size() == CurrencyIndex.MAX_CURRENCIES, "Index is full");
+    }
+
+    private ConversionHistoryStore open() throws IOException {
+        return ConversionHistoryStore.open(dir.resolve("history.bin"), dir.resolve("history.idx"),
+                dir.resolve("history.txt"));
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.CurrencyConverter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+// Failover, hedging and ranking against fake sources whose answers the test controls
+class RateAggregatorTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void failsOverWhenTheFirstSourceFails() throws Exception {
+        FakeSource primary = FakeSource.failing("primary");
+        FakeSource backup = FakeSource.answering("backup");
+        RateAggregator aggregator = new RateAggregator(List.of(primary, backup), Duration.ofSeconds(10));
+
+        assertSame(backup.rates, aggregator.fetch().get(1, TimeUnit.SECONDS));
+        assertEquals(1, primary.calls.get());
+        assertEquals(1, backup.calls.get());
+    }
+
+    @Test
+    void hedgesWhenTheFirstSourceIsSlow() throws Exception {
+        FakeSource slow = FakeSource.hanging("slow");
+        FakeSource fast = FakeSource.answering("fast");
+        RateAggregator aggregator = new RateAggregator(List.of(slow, fast), Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        assertSame(fast.rates, aggregator.fetch().get(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "Did not wait for the slow source");
+        assertEquals(1, slow.calls.get());
+        assertEquals(1, fast.calls.get());
+    }
+
+    @Test
+    void answerWithinTheHedgeDelayStartsNoOtherSource() throws Exception {
+        FakeSource primary = FakeSource.answering("primary");
+        FakeSource backup = FakeSource.answering("backup");
+        RateAggregator aggregator = new RateAggregator(List.of(primary, backup), Duration.ofMillis(50));
+
+        assertSame(primary.rates, aggregator.fetch().get(1, TimeUnit.SECONDS));
+        Thread.sleep(200); // Past the hedge delay
+        assertEquals(0, backup.calls.get());
+    }
+
+    @Test
+    void fetchFailsWhenEverySourceFails() {
+        RateAggregator aggregator = new RateAggregator(
+                List.of(FakeSource.failing("a"), FakeSource.failing("b")), Duration.ofSeconds(10));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> aggregator.fetch().get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    void failingSourceIsRankedBehindHealthyOne() throws Exception {
+        FakeSource flaky = FakeSource.failing("flaky");
+        FakeSource healthy = FakeSource.answering("healthy");
+        RateAggregator aggregator = new RateAggregator(List.of(flaky, healthy), Duration.ofSeconds(10));
+
+        assertSame(flaky, aggregator.ranked().get(0).source);
+        aggregator.fetch().get(1, TimeUnit.SECONDS);
+        assertSame(healthy, aggregator.ranked().get(0).source);
+
+        // The healthy source is now tried first and the flaky one is not called
+        aggregator.fetch().get(1, TimeUnit.SECONDS);
+        assertEquals(1, flaky.calls.get());
+        assertEquals(2, healthy.calls.get());
+    }
+
+    private static final class FakeSource implements RateSource {
+        private enum Behavior { ANSWER, FAIL, HANG }
+
+        final String name;
+        final Behavior behavior;
+        final double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+        final AtomicInteger calls = new AtomicInteger();
+
+        private FakeSource(String name, Behavior behavior) {
+            this.name = name;
+            this.behavior = behavior;
+        }
+
+        static FakeSource answering(String name) {
+            return new FakeSource(name, Behavior.ANSWER);
+        }
+
+        static FakeSource failing(String name) {
+            return new FakeSource(name, Behavior.FAIL);
+        }
+
+        static FakeSource hanging(String name) {
+            return new FakeSource(name, Behavior.HANG);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Duration timeout() {
+            return TIMEOUT;
+        }
+
+        @Override
+        public CompletableFuture<double[]> fetch() {
+            calls.incrementAndGet();
+            switch (behavior) {
+                case ANSWER:
+                    return CompletableFuture.completedFuture(rates);
+                case FAIL:
+                    return CompletableFuture.failedFuture(new IOException(name + " is down"));
+                default:
+                    return new CompletableFuture<>(); // Never answers within the test
+            }
+        }
+    }
+}
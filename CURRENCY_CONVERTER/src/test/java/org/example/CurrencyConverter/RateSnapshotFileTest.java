@@ -0,0 +1,93 @@
+package org.example.CurrencyConverter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Saving the last good rates and reading them back on the next start
+class RateSnapshotFileTest {
+    private Path dir;
+    private Path file;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("rates-test");
+        file = dir.resolve("exchange_rates.bin");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void savedSnapshotLoadsBack() throws IOException {
+        double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+        Arrays.fill(rates, Double.NaN);
+        rates[CurrencyIndex.idOf("USD")] = 1.0;
+        rates[CurrencyIndex.idOf("EUR")] = 0.9125;
+        rates[CurrencyIndex.idOf("JPY")] = 151.37;
+        Instant fetchedAt = Instant.ofEpochMilli(1_700_000_000_123L);
+
+        RateSnapshotFile.save(file, new RateSnapshot(rates, fetchedAt));
+        RateSnapshot loaded = RateSnapshotFile.load(file);
+
+        assertNotNull(loaded);
+        assertEquals(fetchedAt, loaded.getFetchedAt());
+        assertEquals(1.0, loaded.rate("USD"), 0.0);
+        assertEquals(0.9125, loaded.rate("EUR"), 0.0);
+        assertEquals(151.37, loaded.rate("JPY"), 0.0);
+        assertTrue(Double.isNaN(loaded.rate("GBP")), "Currencies that were not saved have no rate");
+        assertFalse(Files.exists(dir.resolve("exchange_rates.bin.tmp")));
+    }
+
+    @Test
+    void saveReplacesThePreviousSnapshot() throws IOException {
+        RateSnapshotFile.save(file, RateSnapshot.fallback());
+        double[] rates = new double[CurrencyIndex.MAX_CURRENCIES];
+        Arrays.fill(rates, Double.NaN);
+        rates[CurrencyIndex.idOf("USD")] = 1.0;
+        RateSnapshotFile.save(file, new RateSnapshot(rates, Instant.ofEpochSecond(42)));
+
+        RateSnapshot loaded = RateSnapshotFile.load(file);
+        assertEquals(Instant.ofEpochSecond(42), loaded.getFetchedAt());
+        assertTrue(Double.isNaN(loaded.rate("EUR")));
+    }
+
+    @Test
+    void missingFileLoadsAsNull() {
+        assertNull(RateSnapshotFile.load(file));
+    }
+
+    @Test
+    void corruptFileLoadsAsNull() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertNull(RateSnapshotFile.load(file));
+    }
+
+    @Test
+    void truncatedFileLoadsAsNull() throws IOException {
+        RateSnapshotFile.save(file, RateSnapshot.fallback());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        assertNull(RateSnapshotFile.load(file));
+    }
+}
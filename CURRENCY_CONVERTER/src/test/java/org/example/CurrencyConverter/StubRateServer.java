@@ -0,0 +1,82 @@
+package org.example.CurrencyConverter;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local HTTP server standing in for a rates API; the response can be changed between requests
+final class StubRateServer implements AutoCloseable {
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile String body = "{\"rates\": {}}";
+    private volatile long delayMillis;
+
+    StubRateServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/latest", exchange -> {
+            requests.incrementAndGet();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stub-rate-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    URI uri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/latest");
+    }
+
+    // Serves {"rates": {...}} built from pairs of code and rate, e.g. rates("USD", 1.0, "EUR", 0.9)
+    StubRateServer rates(Object... codesAndRates) {
+        StringBuilder json = new StringBuilder("{\"base\": \"USD\", \"rates\": {");
+        for (int i = 0; i < codesAndRates.length; i += 2) {
+            json.append(i == 0 ? "" : ", ").append('"').append(codesAndRates[i]).append("\": ").append(codesAndRates[i + 1]);
+        }
+        body = json.append("}}").toString();
+        status = 200;
+        return this;
+    }
+
+    StubRateServer status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    StubRateServer delay(long delayMillis) {
+        this.delayMillis = delayMillis;
+        return this;
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.grade.calculator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Grading an average with the lookup table against the original loop over the thresholds.
+// Scores are per graded average. "fractional" thresholds send some percents to the binary search.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GradeCalculatorBenchmark {
+    private static final int AVERAGES = 4096;
+    private static final String[] LETTERS = {"A", "B", "C", "D"};
+
+    @Param({"whole", "fractional"})
+    public String thresholds;
+
+    private double[] gradeThresholds;
+    private GradeCalculator gradeCalculator;
+    private final double[] averages = new double[AVERAGES];
+
+    @Setup
+    public void setUp() {
+        gradeThresholds = thresholds.equals("whole")
+                ? new double[] {90, 80, 70, 60} : new double[] {89.5, 79.5, 69.5, 59.5};
+        gradeCalculator = new GradeCalculator(gradeThresholds, LETTERS);
+        // Averages of a few whole-number marks, as StudentGrades produces them
+        Random random = new Random(42);
+        for (int i = 0; i < AVERAGES; i++) {
+            averages[i] = (30 + random.nextInt(71 * 4)) / 4.0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AVERAGES)
+    public void lookupTable(Blackhole blackhole) {
+        for (double average : averages) {
+            blackhole.consume(gradeCalculator.calculateGrade(average));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AVERAGES)
+    public void originalLoop(Blackhole blackhole) {
+        for (double average : averages) {
+            blackhole.consume(loopGrade(average));
+        }
+    }
+
+    // GradeCalculator.calculateGrade before the lookup table: thresholds in entered order, highest first
+    private String loopGrade(double averagePercentage) {
+        for (int i = 0; i < gradeThresholds.length; i++) {
+            if (averagePercentage >= gradeThresholds[i]) {
+                return LETTERS[i];
+            }
+        }
+        return "F";
+    }
+}
@@ -0,0 +1,235 @@
+package com.grade.calculator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Grades a whole roster file without prompting: each "studentId,mark1,mark2,..." row becomes
+// "studentId,total,average,grade", or the row followed by ",ERROR" if its marks are not whole numbers.
+// The roster is read in batches of rows; a round of batches is graded in parallel and written out in
+// roster order before the next round is read, so memory stays flat however long the roster is.
+// Each batch gathers its own cohort statistics, which are merged into the result in the same order.
+public class BatchGradeProcessor {
+    private static final int DEFAULT_BATCH_ROWS = 16 * 1024;
+    private static final String HEADER = "student,total,average,grade\n";
+    private static final long PROGRESS_INTERVAL_NANOS = 2_000_000_000L;
+
+    private final GradeCalculator gradeCalculator;
+    private final ExecutorService pool;
+    private final int batchRows;
+    private final int batchesPerRound;
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    BatchGradeProcessor(GradeCalculator gradeCalculator, ForkJoinPool pool) {
+        this(gradeCalculator, pool, DEFAULT_BATCH_ROWS, pool.getParallelism() * 2);
+    }
+
+    BatchGradeProcessor(GradeCalculator gradeCalculator, ExecutorService pool, int batchRows, int batchesPerRound) {
+        if (batchRows <= 0 || batchesPerRound <= 0) {
+            throw new IllegalArgumentException("Batches need at least one row and one batch per round");
+        }
+        this.gradeCalculator = gradeCalculator;
+        this.pool = pool;
+        this.batchRows = batchRows;
+        this.batchesPerRound = batchesPerRound;
+    }
+
+    // Usage: BatchGradeProcessor <roster.csv> <results.csv> <grade:minimum>... (e.g. A:90 B:80 C:70 D:60)
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BatchGradeProcessor <roster.csv> <results.csv> <grade:minimum>...");
+            System.exit(2);
+        }
+        int gradeLevels = args.length - 2;
+        double[] gradeThresholds = new double[gradeLevels];
+        String[] gradeLetters = new String[gradeLevels];
+        for (int i = 0; i < gradeLevels; i++) {
+            String[] level = args[i + 2].split(":");
+            gradeLetters[i] = level[0];
+            gradeThresholds[i] = Double.parseDouble(level[1]);
+        }
+        GradeCalculator gradeCalculator;
+        try {
+            gradeCalculator = new GradeCalculator(gradeThresholds, gradeLetters);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid grade levels: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        new BatchGradeProcessor(gradeCalculator, ForkJoinPool.commonPool()).run(Paths.get(args[0]), Paths.get(args[1]), System.out)
+                .print(System.out);
+    }
+
+    // Method to grade the roster into the results file, reporting progress and the row counts to 'out';
+    // returns statistics over every valid row
+    CohortStatistics run(Path roster, Path results, PrintStream out) throws IOException {
+        long started = System.nanoTime();
+        long lastProgress = started;
+        CohortStatistics statistics = new CohortStatistics(gradeCalculator);
+        try (BufferedReader reader = Files.newBufferedReader(roster, StandardCharsets.ISO_8859_1);
+             BufferedWriter writer = Files.newBufferedWriter(results, StandardCharsets.ISO_8859_1)) {
+            writer.write(HEADER);
+            String first = reader.readLine();
+            // Like MarksStore.load, a first line whose marks are not numbers is the roster's header
+            String pending = first != null && isHeader(first) ? null : first;
+
+            List<GradeBatch> round = new ArrayList<>(batchesPerRound);
+            boolean more = true;
+            while (more) {
+                round.clear();
+                while (round.size() < batchesPerRound && more) {
+                    GradeBatch batch = new GradeBatch(batchRows);
+                    if (pending != null) {
+                        batch.lines.add(pending);
+                        pending = null;
+                    }
+                    String line;
+                    while (batch.lines.size() < batchRows && (line = reader.readLine()) != null) {
+                        batch.lines.add(line);
+                    }
+                    more = batch.lines.size() == batchRows;
+                    if (!batch.lines.isEmpty()) {
+                        round.add(batch);
+                    }
+                }
+                for (Future<String> graded : invokeAll(round)) {
+                    writer.write(join(graded));
+                }
+                for (GradeBatch batch : round) {
+                    statistics.merge(batch.statistics);
+                }
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    out.printf("%d students  %.0f rows/sec%n", rows.get(), rows.get() / ((now - started) / 1e9));
+                    lastProgress = now;
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        out.printf("Graded %d students (%d invalid rows) in %.1f s, %.0f rows/sec%n", rows.get(), errors.get(),
+                elapsedNanos / 1e9, rows.get() / (elapsedNanos / 1e9));
+        return statistics;
+    }
+
+    private List<Future<String>> invokeAll(List<GradeBatch> round) throws IOException {
+        try {
+            return pool.invokeAll(round);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while grading the roster", e);
+        }
+    }
+
+    private static String join(Future<String> graded) throws IOException {
+        try {
+            return graded.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while grading the roster", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not grade the roster", e.getCause());
+        }
+    }
+
+    private static boolean isHeader(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 2) {
+            return false;
+        }
+        try {
+            Integer.parseInt(fields[1].trim());
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // total / count to two decimals, rounded half up like printf("%.2f"), using exact integer arithmetic
+    private static StringBuilder appendHundredths(StringBuilder output, long total, int count) {
+        long magnitude = Math.abs(total);
+        long hundredths = (magnitude * 200 + count) / (2L * count);
+        if (total < 0 && hundredths != 0) {
+            output.append('-');
+        }
+        output.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            output.append('0');
+        }
+        return output.append(fraction);
+    }
+
+    // Grades a batch of roster lines into the output lines for them, collecting their statistics
+    private final class GradeBatch implements Callable<String> {
+        final List<String> lines;
+        final CohortStatistics statistics = new CohortStatistics(gradeCalculator);
+        private int[] marks = new int[16];
+
+        GradeBatch(int capacity) {
+            this.lines = new ArrayList<>(capacity);
+        }
+
+        @Override
+        public String call() {
+            StringBuilder output = new StringBuilder(lines.size() * 32);
+            long rowCount = 0;
+            long errorCount = 0;
+            for (String line : lines) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (!gradeRow(line, output)) {
+                    output.append(line).append(",ERROR\n");
+                    errorCount++;
+                }
+                rowCount++;
+            }
+            rows.addAndGet(rowCount);
+            errors.addAndGet(errorCount);
+            return output.toString();
+        }
+
+        // Grades one row as the interactive mode would: the marks' total, its average and the grade
+        private boolean gradeRow(String line, StringBuilder output) {
+            String[] fields = line.split(",", -1); // Keep trailing empty fields, so "s1,90," is invalid
+            int numSubjects = fields.length - 1;
+            if (numSubjects == 0 || fields[0].isEmpty()) {
+                return false;
+            }
+            if (numSubjects > marks.length) {
+                marks = new int[Math.max(numSubjects, marks.length * 2)];
+            }
+            long total = 0;
+            try {
+                for (int i = 0; i < numSubjects; i++) {
+                    marks[i] = Integer.parseInt(fields[i + 1].trim());
+                    total += marks[i];
+                }
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            double averagePercentage = (double) total / numSubjects;
+            int gradeIndex = gradeCalculator.gradeIndexOf(averagePercentage);
+            statistics.addStudent(marks, numSubjects, averagePercentage, gradeIndex);
+            output.append(fields[0]).append(',').append(total).append(',');
+            appendHundredths(output, total, numSubjects).append(',').append(gradeCalculator.gradeLetter(gradeIndex))
+                    .append('\n');
+            return true;
+        }
+    }
+}
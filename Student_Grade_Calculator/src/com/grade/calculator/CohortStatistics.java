@@ -0,0 +1,174 @@
+package com.grade.calculator;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Class- or school-wide statistics built up one graded student at a time, without keeping the students.
+// Tracks the average percentage (mean, variance, percentiles, grade distribution) and the same for each
+// subject's marks. Memory is fixed per subject; statistics from parallel workers combine with merge().
+class CohortStatistics {
+    private static final double[] REPORTED_PERCENTILES = {10, 25, 50, 75, 90};
+    private static final int MAX_MARK = 100;
+
+    private final GradeCalculator gradeCalculator;
+    private final RunningStats averages = new RunningStats();
+    private final PercentileSketch averagePercentiles = new PercentileSketch();
+    private final long[] gradeCounts;
+    private final List<SubjectStatistics> subjects = new ArrayList<>();
+
+    CohortStatistics(GradeCalculator gradeCalculator) {
+        this.gradeCalculator = gradeCalculator;
+        this.gradeCounts = new long[gradeCalculator.gradeCount() + 1]; // last slot counts F
+    }
+
+    // Method to add one student's marks, their average and the grade it earned
+    public void addStudent(int[] marks, int numSubjects, double averagePercentage, int gradeIndex) {
+        for (int i = 0; i < numSubjects; i++) {
+            subject(i).add(marks[i]);
+        }
+        averages.add(averagePercentage);
+        averagePercentiles.add(averagePercentage);
+        gradeCounts[slot(gradeIndex)]++;
+    }
+
+    public void merge(CohortStatistics other) {
+        averages.merge(other.averages);
+        averagePercentiles.merge(other.averagePercentiles);
+        for (int i = 0; i < gradeCounts.length; i++) {
+            gradeCounts[i] += other.gradeCounts[i];
+        }
+        for (int i = 0; i < other.subjects.size(); i++) {
+            subject(i).merge(other.subjects.get(i));
+        }
+    }
+
+    public long getStudentCount() {
+        return averages.getCount();
+    }
+
+    // Method to print the report
+    public void print(PrintStream out) {
+        out.println("\nClass statistics:");
+        out.printf("Students: %d%n", averages.getCount());
+        if (averages.getCount() == 0) {
+            return;
+        }
+        out.printf("Average percentage: mean %.2f, std dev %.2f, min %.2f, max %.2f%n", averages.getMean(),
+                averages.getStandardDeviation(), averages.getMin(), averages.getMax());
+        printPercentiles(out, averagePercentiles);
+        printGrades(out, gradeCounts, averages.getCount());
+        for (int i = 0; i < subjects.size(); i++) {
+            SubjectStatistics subject = subjects.get(i);
+            RunningStats marks = subject.marks();
+            out.printf("Subject %d: mean %.2f, std dev %.2f, min %.0f, max %.0f%n", i + 1, marks.getMean(),
+                    marks.getStandardDeviation(), marks.getMin(), marks.getMax());
+            out.print("  Percentiles:");
+            for (double percentile : REPORTED_PERCENTILES) {
+                out.printf(" p%.0f %d", percentile, subject.percentile(percentile));
+            }
+            out.println();
+            printGrades(out, subject.gradeCounts(), marks.getCount());
+        }
+        out.println("=======================================");
+    }
+
+    private static void printPercentiles(PrintStream out, PercentileSketch sketch) {
+        out.print("  Percentiles:");
+        for (double percentile : REPORTED_PERCENTILES) {
+            out.printf(" p%.0f %.1f", percentile, sketch.getPercentile(percentile));
+        }
+        out.println();
+    }
+
+    private void printGrades(PrintStream out, long[] counts, long total) {
+        out.print("  Grades:");
+        for (int i = 0; i < counts.length; i++) {
+            int gradeIndex = i == counts.length - 1 ? -1 : i;
+            out.printf(" %s %d (%.1f%%)", gradeCalculator.gradeLetter(gradeIndex), counts[i], 100.0 * counts[i] / total);
+        }
+        out.println();
+    }
+
+    private int slot(int gradeIndex) {
+        return gradeIndex < 0 ? gradeCounts.length - 1 : gradeIndex;
+    }
+
+    private SubjectStatistics subject(int index) {
+        while (subjects.size() <= index) {
+            subjects.add(new SubjectStatistics());
+        }
+        return subjects.get(index);
+    }
+
+    // Marks in one subject, graded on their own against the same thresholds.
+    // Marks are whole numbers, so those from 0 to 100 are just counted per value and the mean, variance,
+    // percentiles and grades are all worked out from the counts when the report is printed.
+    private final class SubjectStatistics {
+        final long[] markCounts = new long[MAX_MARK + 1];
+        final RunningStats outOfRange = new RunningStats();
+        final long[] outOfRangeGrades = new long[gradeCounts.length];
+        long below;
+        long above;
+
+        void add(int mark) {
+            if (mark >= 0 && mark <= MAX_MARK) {
+                markCounts[mark]++;
+                return;
+            }
+            outOfRange.add(mark);
+            outOfRangeGrades[slot(gradeCalculator.gradeIndexOf(mark))]++;
+            if (mark < 0) {
+                below++;
+            } else {
+                above++;
+            }
+        }
+
+        void merge(SubjectStatistics other) {
+            for (int mark = 0; mark <= MAX_MARK; mark++) {
+                markCounts[mark] += other.markCounts[mark];
+            }
+            outOfRange.merge(other.outOfRange);
+            for (int i = 0; i < outOfRangeGrades.length; i++) {
+                outOfRangeGrades[i] += other.outOfRangeGrades[i];
+            }
+            below += other.below;
+            above += other.above;
+        }
+
+        RunningStats marks() {
+            RunningStats marks = new RunningStats();
+            for (int mark = 0; mark <= MAX_MARK; mark++) {
+                marks.add(mark, markCounts[mark]);
+            }
+            marks.merge(outOfRange);
+            return marks;
+        }
+
+        long[] gradeCounts() {
+            long[] counts = outOfRangeGrades.clone();
+            for (int mark = 0; mark <= MAX_MARK; mark++) {
+                counts[slot(gradeCalculator.gradeIndexOf(mark))] += markCounts[mark];
+            }
+            return counts;
+        }
+
+        // Marks outside 0-100 count as 0 or 100 here
+        int percentile(double percentile) {
+            long total = below + above;
+            for (long count : markCounts) {
+                total += count;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = below;
+            for (int mark = 0; mark <= MAX_MARK; mark++) {
+                seen += markCounts[mark];
+                if (seen >= rank) {
+                    return mark;
+                }
+            }
+            return MAX_MARK;
+        }
+    }
+}
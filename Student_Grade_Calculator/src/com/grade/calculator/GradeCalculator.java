@@ -0,0 +1,98 @@
+package com.grade.calculator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Maps an average percentage to a grade letter.
+// The thresholds are validated and sorted once, highest first, so they can be entered in any order.
+// Lookups for averages in 0-100 go through a table with one entry per whole percent; only a percent
+// that has a threshold strictly inside it (e.g. 89.5) falls back to a binary search over the thresholds.
+class GradeCalculator {
+    private static final int TABLE_SIZE = 101;     // one entry per whole percent, 0 to 100
+    private static final int FAIL = -1;            // below every threshold
+    private static final int NEEDS_SEARCH = -2;    // a threshold splits this percent
+
+    private final double[] gradeThresholds;       // descending
+    private final String[] gradeLetters;          // matching gradeThresholds
+    private final int[] gradeByPercent = new int[TABLE_SIZE];
+
+    public GradeCalculator(double[] gradeThresholds, String[] gradeLetters) {
+        if (gradeThresholds.length != gradeLetters.length) {
+            throw new IllegalArgumentException("Each grade letter needs exactly one threshold");
+        }
+        Integer[] order = new Integer[gradeThresholds.length];
+        for (int i = 0; i < order.length; i++) {
+            if (Double.isNaN(gradeThresholds[i]) || Double.isInfinite(gradeThresholds[i])) {
+                throw new IllegalArgumentException("Invalid threshold for " + gradeLetters[i] + ": " + gradeThresholds[i]);
+            }
+            if (gradeLetters[i] == null || gradeLetters[i].isEmpty()) {
+                throw new IllegalArgumentException("Missing grade letter for threshold " + gradeThresholds[i]);
+            }
+            order[i] = i;
+        }
+        // Stable, so when two letters share a threshold the one entered first wins, as before
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> gradeThresholds[i]).reversed());
+        this.gradeThresholds = new double[order.length];
+        this.gradeLetters = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            this.gradeThresholds[i] = gradeThresholds[order[i]];
+            this.gradeLetters[i] = gradeLetters[order[i]];
+        }
+
+        for (int percent = 0; percent < TABLE_SIZE; percent++) {
+            gradeByPercent[percent] = splitsPercent(percent) ? NEEDS_SEARCH : search(percent);
+        }
+    }
+
+    public String calculateGrade(double averagePercentage) {
+        int grade = gradeIndexOf(averagePercentage);
+        return grade == FAIL ? "F" : gradeLetters[grade];
+    }
+
+    // Index of the grade in gradeLetters, or -1 (FAIL) if the average is below every threshold
+    int gradeIndexOf(double averagePercentage) {
+        if (averagePercentage >= 0 && averagePercentage < TABLE_SIZE) {
+            int grade = gradeByPercent[(int) averagePercentage];
+            if (grade != NEEDS_SEARCH) {
+                return grade;
+            }
+        }
+        return search(averagePercentage);
+    }
+
+    String gradeLetter(int gradeIndex) {
+        return gradeIndex == FAIL ? "F" : gradeLetters[gradeIndex];
+    }
+
+    int gradeCount() {
+        return gradeLetters.length;
+    }
+
+    // True if some threshold lies strictly between percent and percent + 1
+    private boolean splitsPercent(int percent) {
+        for (double threshold : gradeThresholds) {
+            if (threshold > percent && threshold < percent + 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // First (highest) threshold the average reaches, by binary search over the descending thresholds
+    private int search(double averagePercentage) {
+        if (Double.isNaN(averagePercentage)) {
+            return FAIL;
+        }
+        int low = 0;
+        int high = gradeThresholds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (gradeThresholds[mid] <= averagePercentage) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low < gradeThresholds.length ? low : FAIL;
+    }
+}
@@ -0,0 +1,183 @@
+package com.grade.calculator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Marks of many students kept column by column: one int[] per subject, indexed by student.
+// Totals and averages are simple loops over contiguous arrays that the JIT can vectorize, and grading
+// looks each student's total up in a table built once per set of thresholds, so re-grading the whole
+// class with new thresholds costs one array pass instead of one object and one search per student.
+class MarksStore {
+    private static final int MAX_GRADE_TABLE = 1 << 20;
+
+    private final int numSubjects;
+    private final int[][] subjects;
+    private String[] studentIds;
+    private int size;
+    private long[] totals;       // cached, rebuilt after marks are added; long so many large marks cannot overflow
+    private boolean totalsValid;
+    private long skippedRows;
+
+    MarksStore(int numSubjects, int initialCapacity) {
+        if (numSubjects <= 0) {
+            throw new IllegalArgumentException("A student needs at least one subject");
+        }
+        int capacity = Math.max(16, initialCapacity);
+        this.numSubjects = numSubjects;
+        this.subjects = new int[numSubjects][capacity];
+        this.studentIds = new String[capacity];
+    }
+
+    // Reads a "studentId,mark1,mark2,..." roster. A header line is skipped, and so are rows whose marks
+    // are not numbers or whose number of subjects differs from the first row (see getSkippedRows).
+    static MarksStore load(Path roster) throws IOException {
+        long skipped = 0;
+        MarksStore store = null;
+        try (BufferedReader reader = Files.newBufferedReader(roster, StandardCharsets.ISO_8859_1)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1); // Keep trailing empty fields, so "s1,90," is invalid
+                int[] marks = new int[fields.length - 1];
+                try {
+                    for (int i = 0; i < marks.length; i++) {
+                        marks[i] = Integer.parseInt(fields[i + 1].trim());
+                    }
+                } catch (NumberFormatException e) {
+                    if (lineNumber > 1) {
+                        skipped++; // The first line is the header
+                    }
+                    continue;
+                }
+                if (store == null && marks.length > 0) {
+                    store = new MarksStore(marks.length, (int) Math.min(Files.size(roster) / (line.length() + 1), 1 << 24));
+                }
+                if (store == null || marks.length != store.numSubjects) {
+                    skipped++;
+                    continue;
+                }
+                store.addStudent(fields[0], marks);
+            }
+        }
+        if (store == null) {
+            throw new IOException("Roster has no students: " + roster);
+        }
+        store.skippedRows = skipped;
+        return store;
+    }
+
+    // Method to add one student's marks, one per subject
+    void addStudent(String studentId, int[] marks) {
+        if (marks.length != numSubjects) {
+            throw new IllegalArgumentException("Expected " + numSubjects + " marks but got " + marks.length);
+        }
+        if (size == studentIds.length) {
+            int capacity = size * 2;
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            for (int s = 0; s < numSubjects; s++) {
+                subjects[s] = Arrays.copyOf(subjects[s], capacity);
+            }
+        }
+        studentIds[size] = studentId;
+        for (int s = 0; s < numSubjects; s++) {
+            subjects[s][size] = marks[s];
+        }
+        size++;
+        totalsValid = false;
+    }
+
+    long getSkippedRows() {
+        return skippedRows;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int numSubjects() {
+        return numSubjects;
+    }
+
+    String studentId(int student) {
+        return studentIds[student];
+    }
+
+    int mark(int student, int subject) {
+        return subjects[subject][student];
+    }
+
+    // Total marks per student, summed subject by subject over whole columns
+    long[] totals() {
+        if (!totalsValid) {
+            long[] sums = new long[size];
+            for (int s = 0; s < numSubjects; s++) {
+                int[] column = subjects[s];
+                for (int i = 0; i < size; i++) {
+                    sums[i] += column[i];
+                }
+            }
+            totals = sums;
+            totalsValid = true;
+        }
+        return totals;
+    }
+
+    // Average percentage per student, computed exactly as the interactive mode does: total / subjects
+    double[] averages() {
+        long[] sums = totals();
+        double[] averages = new double[size];
+        double subjectsCount = numSubjects;
+        for (int i = 0; i < size; i++) {
+            averages[i] = sums[i] / subjectsCount;
+        }
+        return averages;
+    }
+
+    // Grade index of every student (see GradeCalculator.gradeIndexOf), -1 for F
+    int[] grades(GradeCalculator gradeCalculator) {
+        long[] sums = totals();
+        int[] grades = new int[size];
+        if (size == 0) {
+            return grades;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, sums[i]);
+            max = Math.max(max, sums[i]);
+        }
+        if (max - min >= MAX_GRADE_TABLE) {
+            // Totals too spread out for a table; grade each average directly
+            for (int i = 0; i < size; i++) {
+                grades[i] = gradeCalculator.gradeIndexOf((double) sums[i] / numSubjects);
+            }
+            return grades;
+        }
+        // Every student with the same total has the same average, so grade each distinct total once
+        int[] gradeByTotal = new int[(int) (max - min + 1)];
+        for (int offset = 0; offset < gradeByTotal.length; offset++) {
+            gradeByTotal[offset] = gradeCalculator.gradeIndexOf((double) (min + offset) / numSubjects);
+        }
+        for (int i = 0; i < size; i++) {
+            grades[i] = gradeByTotal[(int) (sums[i] - min)];
+        }
+        return grades;
+    }
+
+    // Number of students per grade, F last
+    long[] gradeCounts(GradeCalculator gradeCalculator) {
+        long[] counts = new long[gradeCalculator.gradeCount() + 1];
+        for (int grade : grades(gradeCalculator)) {
+            counts[grade < 0 ? counts.length - 1 : grade]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,48 @@
+package com.grade.calculator;
+
+// Approximate percentiles of values on a 0-100 scale, in a fixed 8 KB whatever the number of values.
+// Values are counted in bins 0.1 wide, so a percentile is off by at most 0.05 (half a bin); values
+// outside 0-100 are counted at the nearest end. Sketches from parallel workers merge by adding counts.
+class PercentileSketch {
+    private static final int BINS_PER_UNIT = 10;
+    private static final int BINS = 100 * BINS_PER_UNIT + 1;
+
+    private final long[] counts = new long[BINS];
+    private long total;
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        int bin = (int) Math.round(Math.max(0, Math.min(100, value)) * BINS_PER_UNIT);
+        counts[bin]++;
+        total++;
+    }
+
+    public void merge(PercentileSketch other) {
+        for (int i = 0; i < BINS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    // Value below which the given percentage (0-100) of values fall, or NaN if there are none
+    public double getPercentile(double percentile) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (double) i / BINS_PER_UNIT;
+            }
+        }
+        return 100;
+    }
+}
@@ -0,0 +1,70 @@
+package com.grade.calculator;
+
+// Count, mean, variance, minimum and maximum of a stream of values in constant memory.
+// Uses Welford's update, which stays accurate where summing squares would lose precision,
+// and Chan's formula to merge the results of parallel workers.
+class RunningStats {
+    private long count;
+    private double mean;
+    private double sumOfSquaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDeviations += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // Adds the same value several times at once
+    public void add(double value, long times) {
+        combine(times, value, 0, value, value);
+    }
+
+    // Combines another worker's values into this one, as if they had all been added here
+    public void merge(RunningStats other) {
+        combine(other.count, other.mean, other.sumOfSquaredDeviations, other.min, other.max);
+    }
+
+    private void combine(long otherCount, double otherMean, double otherSquaredDeviations, double otherMin,
+                         double otherMax) {
+        if (otherCount <= 0) {
+            return;
+        }
+        long combined = count + otherCount;
+        double delta = otherMean - mean;
+        mean += delta * otherCount / combined;
+        sumOfSquaredDeviations += otherSquaredDeviations + delta * delta * count * otherCount / combined;
+        count = combined;
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Population variance: the whole class is the population, not a sample of it
+    public double getVariance() {
+        return count == 0 ? Double.NaN : sumOfSquaredDeviations / count;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+}
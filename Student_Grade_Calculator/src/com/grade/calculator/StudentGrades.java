@@ -1,63 +1,52 @@
 package com.grade.calculator;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.InputMismatchException;
-
-class GradeCalculator {
-    private double[] gradeThresholds;
-    private String[] gradeLetters;
-
-    public GradeCalculator(double[] gradeThresholds, String[] gradeLetters) {
-        this.gradeThresholds = gradeThresholds;
-        this.gradeLetters = gradeLetters;
-    }
-
-    public String calculateGrade(double averagePercentage) {
-        for (int i = 0; i < gradeThresholds.length; i++) {
-            if (averagePercentage >= gradeThresholds[i]) {
-                return gradeLetters[i];
-            }
-        }
-        return "F";
-    }
-}
+import java.util.concurrent.ForkJoinPool;
 
 public class StudentGrades {
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
 
-        // Define grade thresholds and letters
-        System.out.println("Enter the number of grade levels:");
-        int gradeLevels = scanner.nextInt();
-        double[] gradeThresholds = new double[gradeLevels];
-        String[] gradeLetters = new String[gradeLevels];
-
-        System.out.println("Enter the grade levels and their corresponding minimum percentage thresholds:");
-        for (int i = 0; i < gradeLevels; i++) {
-            System.out.print("Grade letter: ");
-            gradeLetters[i] = scanner.next();
-            System.out.print("Minimum percentage for " + gradeLetters[i] + ": ");
-            gradeThresholds[i] = scanner.nextDouble();
+        GradeCalculator gradeCalculator = readGradeLevels(scanner);
+        if (gradeCalculator == null) {
+            scanner.close();
+            return;
         }
 
-        GradeCalculator gradeCalculator = new GradeCalculator(gradeThresholds, gradeLetters);
+        // Every student graded this session, for the class statistics
+        CohortStatistics classStatistics = new CohortStatistics(gradeCalculator);
 
         boolean exit = false;
         while (!exit) {
             System.out.println("\nMenu:");
             System.out.println("1. Calculate grades for a single student");
             System.out.println("2. Calculate grades for multiple students");
-            System.out.println("3. Exit");
+            System.out.println("3. Grade a roster file");
+            System.out.println("4. Show class statistics");
+            System.out.println("5. Re-grade a roster with different grade levels");
+            System.out.println("6. Exit");
             System.out.print("Enter your choice: ");
             int choice = scanner.nextInt();
 
             switch (choice) {
                 case 1:
-                    calculateGradesForSingleStudent(scanner, gradeCalculator);
+                    calculateGradesForSingleStudent(scanner, gradeCalculator, classStatistics);
                     break;
                 case 2:
-                    calculateGradesForMultipleStudents(scanner, gradeCalculator);
+                    calculateGradesForMultipleStudents(scanner, gradeCalculator, classStatistics);
                     break;
                 case 3:
+                    gradeRosterFile(scanner, gradeCalculator, classStatistics);
+                    break;
+                case 4:
+                    classStatistics.print(System.out);
+                    break;
+                case 5:
+                    regradeRosterFile(scanner);
+                    break;
+                case 6:
                     exit = true;
                     break;
                 default:
@@ -68,7 +57,32 @@ public class StudentGrades {
         scanner.close();
     }
 
-    private static void calculateGradesForSingleStudent(Scanner scanner, GradeCalculator gradeCalculator) {
+    // Method to read the grade thresholds and letters; returns null if they are not valid
+    private static GradeCalculator readGradeLevels(Scanner scanner) {
+        // Define grade thresholds and letters
+        System.out.println("Enter the number of grade levels:");
+        int gradeLevels = scanner.nextInt();
+        double[] gradeThresholds = new double[gradeLevels];
+        String[] gradeLetters = new String[gradeLevels];
+
+        System.out.println("Enter the grade levels and their corresponding minimum percentage thresholds:");
+        for (int i = 0; i < gradeLevels; i++) {
+            System.out.print("Grade letter: ");
+            gradeLetters[i] = scanner.next();
+            System.out.print("Minimum percentage for " + gradeLetters[i] + ": ");
+            gradeThresholds[i] = scanner.nextDouble();
+        }
+
+        try {
+            return new GradeCalculator(gradeThresholds, gradeLetters);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid grade levels: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void calculateGradesForSingleStudent(Scanner scanner, GradeCalculator gradeCalculator,
+                                                        CohortStatistics classStatistics) {
         try {
             System.out.print("Enter the number of subjects: ");
             int numSubjects = scanner.nextInt();
@@ -83,7 +97,9 @@ public class StudentGrades {
             }
 
             double averagePercentage = (double) totalMarks / numSubjects;
-            String grade = gradeCalculator.calculateGrade(averagePercentage);
+            int gradeIndex = gradeCalculator.gradeIndexOf(averagePercentage);
+            String grade = gradeCalculator.gradeLetter(gradeIndex);
+            classStatistics.addStudent(marks, numSubjects, averagePercentage, gradeIndex);
 
             displayResults(totalMarks, averagePercentage, grade);
 
@@ -93,14 +109,15 @@ public class StudentGrades {
         }
     }
 
-    private static void calculateGradesForMultipleStudents(Scanner scanner, GradeCalculator gradeCalculator) {
+    private static void calculateGradesForMultipleStudents(Scanner scanner, GradeCalculator gradeCalculator,
+                                                           CohortStatistics classStatistics) {
         try {
             System.out.print("Enter the number of students: ");
             int numStudents = scanner.nextInt();
 
             for (int i = 0; i < numStudents; i++) {
                 System.out.println("\nStudent " + (i + 1) + ":");
-                calculateGradesForSingleStudent(scanner, gradeCalculator);
+                calculateGradesForSingleStudent(scanner, gradeCalculator, classStatistics);
             }
 
         } catch (InputMismatchException e) {
@@ -109,6 +126,55 @@ public class StudentGrades {
         }
     }
 
+    // Method to grade every student in a CSV roster ("studentId,mark1,mark2,...") in one pass
+    private static void gradeRosterFile(Scanner scanner, GradeCalculator gradeCalculator,
+                                        CohortStatistics classStatistics) {
+        System.out.print("Enter the roster file: ");
+        String roster = scanner.next();
+        System.out.print("Enter the results file: ");
+        String results = scanner.next();
+        try {
+            CohortStatistics rosterStatistics = new BatchGradeProcessor(gradeCalculator, ForkJoinPool.commonPool())
+                    .run(Paths.get(roster), Paths.get(results), System.out);
+            rosterStatistics.print(System.out);
+            classStatistics.merge(rosterStatistics);
+        } catch (IOException e) {
+            System.out.println("Could not grade roster: " + e.getMessage());
+        }
+    }
+
+    // Method to load a roster once and show its grade distribution under new grade levels, as often as wanted
+    private static void regradeRosterFile(Scanner scanner) {
+        System.out.print("Enter the roster file: ");
+        String roster = scanner.next();
+        MarksStore store;
+        try {
+            store = MarksStore.load(Paths.get(roster));
+        } catch (IOException e) {
+            System.out.println("Could not load roster: " + e.getMessage());
+            return;
+        }
+        System.out.printf("Loaded %d students with %d subjects (%d invalid rows skipped)%n", store.size(),
+                store.numSubjects(), store.getSkippedRows());
+
+        String again = "y";
+        while (again.equalsIgnoreCase("y")) {
+            GradeCalculator gradeCalculator = readGradeLevels(scanner);
+            if (gradeCalculator != null) {
+                long started = System.nanoTime();
+                long[] counts = store.gradeCounts(gradeCalculator);
+                long elapsedNanos = System.nanoTime() - started;
+                System.out.print("\nGrades:");
+                for (int i = 0; i < counts.length; i++) {
+                    System.out.printf(" %s %d", gradeCalculator.gradeLetter(i == counts.length - 1 ? -1 : i), counts[i]);
+                }
+                System.out.printf("%nRe-graded %d students in %.1f ms%n", store.size(), elapsedNanos / 1e6);
+            }
+            System.out.print("Try other grade levels? (y/n): ");
+            again = scanner.next();
+        }
+    }
+
     private static void displayResults(int totalMarks, double averagePercentage, String grade) {
         System.out.println("\nResults:");
         System.out.printf("Total Marks: %d\n", totalMarks);
@@ -0,0 +1,142 @@
+package com.grade.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Batch results must match grading every row on its own, wherever the batches split the roster
+class BatchGradeProcessorTest {
+    private static final GradeCalculator GRADES = new GradeCalculator(new double[] {90, 80, 70, 60},
+            new String[] {"A", "B", "C", "D"});
+
+    private ExecutorService pool;
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pool = Executors.newFixedThreadPool(4);
+        dir = Files.createTempDirectory("grades-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdownNow();
+        for (Path file : List.of(dir.resolve("roster.csv"), dir.resolve("results.csv"), dir)) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void everyBatchSizeGivesTheSameResultsAsGradingRowByRow() throws IOException {
+        List<String> roster = randomRoster(1_000, new Random(7));
+        Path rosterFile = write(roster);
+        List<String> expected = new ArrayList<>();
+        expected.add("student,total,average,grade");
+        long validRows = 0;
+        for (String line : roster.subList(1, roster.size())) {
+            String graded = gradeOne(line);
+            if (graded != null) {
+                expected.add(graded);
+                validRows += graded.endsWith(",ERROR") ? 0 : 1;
+            }
+        }
+
+        // Batches of one row, of a few rows that split rounds unevenly, and of the whole roster at once
+        int[][] shapes = {{1, 1}, {3, 4}, {7, 2}, {100_000, 8}};
+        for (int[] shape : shapes) {
+            CohortStatistics statistics = new BatchGradeProcessor(GRADES, pool, shape[0], shape[1])
+                    .run(rosterFile, dir.resolve("results.csv"), new PrintStream(new ByteArrayOutputStream()));
+            List<String> actual = Files.readAllLines(dir.resolve("results.csv"), StandardCharsets.ISO_8859_1);
+            assertEquals(expected, actual, "Batches of " + shape[0] + " rows, " + shape[1] + " per round");
+            assertEquals(validRows, statistics.getStudentCount());
+        }
+    }
+
+    @Test
+    void rosterWithoutHeaderKeepsItsFirstRow() throws IOException {
+        Path rosterFile = write(List.of("s1,95,85", "s2,50,60", "", "s3,x,70", "s4,80,", "s5, 70 ,71\r"));
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        new BatchGradeProcessor(GRADES, pool, 2, 2).run(rosterFile, dir.resolve("results.csv"),
+                new PrintStream(report, true));
+
+        assertEquals(List.of("student,total,average,grade", "s1,180,90.00,A", "s2,110,55.00,F", "s3,x,70,ERROR",
+                        "s4,80,,ERROR", "s5,141,70.50,C"),
+                Files.readAllLines(dir.resolve("results.csv"), StandardCharsets.ISO_8859_1));
+        assertTrue(report.toString().contains("Graded 5 students (2 invalid rows)"), report.toString());
+    }
+
+    @Test
+    void emptyRosterWritesOnlyTheHeader() throws IOException {
+        Path rosterFile = write(List.of());
+        CohortStatistics statistics = new BatchGradeProcessor(GRADES, pool, 4, 2).run(rosterFile,
+                dir.resolve("results.csv"), new PrintStream(new ByteArrayOutputStream()));
+
+        assertEquals(List.of("student,total,average,grade"),
+                Files.readAllLines(dir.resolve("results.csv"), StandardCharsets.ISO_8859_1));
+        assertEquals(0, statistics.getStudentCount());
+    }
+
+    // A header, then rows with 1-6 marks, some of them blank, invalid or out of range
+    private static List<String> randomRoster(int rows, Random random) {
+        List<String> roster = new ArrayList<>();
+        roster.add("student,maths,physics");
+        for (int i = 0; i < rows; i++) {
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                roster.add("");
+                continue;
+            }
+            StringBuilder row = new StringBuilder("s").append(i);
+            int subjects = 1 + random.nextInt(6);
+            for (int s = 0; s < subjects; s++) {
+                row.append(',');
+                if (kind == 1 && s == subjects - 1) {
+                    row.append("absent");
+                } else {
+                    row.append(kind == 2 ? -5 + random.nextInt(120) : random.nextInt(101));
+                }
+            }
+            roster.add(row.toString());
+        }
+        return roster;
+    }
+
+    // The interactive mode's arithmetic for one row, or null for a blank line
+    private static String gradeOne(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        String[] fields = line.split(",", -1);
+        int total = 0;
+        try {
+            for (int i = 1; i < fields.length; i++) {
+                total += Integer.parseInt(fields[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            return line + ",ERROR";
+        }
+        double averagePercentage = (double) total / (fields.length - 1);
+        return fields[0] + "," + total + "," + String.format(Locale.ROOT, "%.2f", averagePercentage) + ","
+                + GRADES.calculateGrade(averagePercentage);
+    }
+
+    private Path write(List<String> lines) throws IOException {
+        return Files.write(dir.resolve("roster.csv"), lines, StandardCharsets.ISO_8859_1);
+    }
+}
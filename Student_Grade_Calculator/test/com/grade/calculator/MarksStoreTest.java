@@ -0,0 +1,103 @@
+package com.grade.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Column-wise totals and table-driven grading against grading each student directly
+class MarksStoreTest {
+    private static final GradeCalculator GRADES = new GradeCalculator(new double[] {89.5, 80, 70, 60},
+            new String[] {"A", "B", "C", "D"});
+
+    @Test
+    void gradesMatchGradingEachStudent() {
+        Random random = new Random(5);
+        MarksStore store = new MarksStore(3, 4); // Small, so adding students grows it
+        int[][] marks = new int[500][3];
+        for (int[] student : marks) {
+            for (int s = 0; s < student.length; s++) {
+                student[s] = random.nextInt(101);
+            }
+        }
+        for (int i = 0; i < marks.length; i++) {
+            store.addStudent("s" + i, marks[i]);
+        }
+
+        long[] totals = store.totals();
+        double[] averages = store.averages();
+        int[] grades = store.grades(GRADES);
+        long[] counts = store.gradeCounts(GRADES);
+        long[] expectedCounts = new long[GRADES.gradeCount() + 1];
+        for (int i = 0; i < marks.length; i++) {
+            long total = marks[i][0] + marks[i][1] + marks[i][2];
+            double average = (double) total / 3;
+            int grade = GRADES.gradeIndexOf(average);
+            assertEquals(total, totals[i]);
+            assertEquals(average, averages[i], 0.0);
+            assertEquals(grade, grades[i], "Student " + i);
+            expectedCounts[grade < 0 ? expectedCounts.length - 1 : grade]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            assertEquals(expectedCounts[i], counts[i]);
+        }
+    }
+
+    @Test
+    void totalsThatDoNotFitATableAreGradedDirectly() {
+        MarksStore store = new MarksStore(1, 2);
+        store.addStudent("low", new int[] {-2_000_000});
+        store.addStudent("high", new int[] {95});
+        int[] grades = store.grades(GRADES);
+        assertEquals(-1, grades[0]);
+        assertEquals(0, grades[1]);
+    }
+
+    @Test
+    void addingStudentsRecomputesTotals() {
+        MarksStore store = new MarksStore(2, 16);
+        store.addStudent("s1", new int[] {50, 60});
+        assertEquals(110, store.totals()[0]);
+        store.addStudent("s2", new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE});
+        assertEquals(2L * Integer.MAX_VALUE, store.totals()[1]);
+        assertThrows(IllegalArgumentException.class, () -> store.addStudent("s3", new int[] {1}));
+    }
+
+    @Test
+    void loadSkipsTheHeaderAndInvalidRows() throws IOException {
+        Path roster = Files.createTempFile("roster", ".csv");
+        try {
+            Files.write(roster, List.of("student,maths,physics", "s1,90,80", "", "s2,abc,70", "s3,70,", "s4,60,50,40",
+                    "s5, 65 ,75"), StandardCharsets.ISO_8859_1);
+            MarksStore store = MarksStore.load(roster);
+
+            assertEquals(2, store.size());
+            assertEquals(2, store.numSubjects());
+            assertEquals(3, store.getSkippedRows());
+            assertEquals("s1", store.studentId(0));
+            assertEquals("s5", store.studentId(1));
+            assertEquals(65, store.mark(1, 0));
+            assertEquals(140, store.totals()[1]);
+        } finally {
+            Files.delete(roster);
+        }
+    }
+
+    @Test
+    void rosterWithoutStudentsDoesNotLoad() throws IOException {
+        Path roster = Files.createTempFile("roster", ".csv");
+        try {
+            Files.write(roster, List.of("student,maths"), StandardCharsets.ISO_8859_1);
+            assertThrows(IOException.class, () -> MarksStore.load(roster));
+        } finally {
+            Files.delete(roster);
+        }
+    }
+}
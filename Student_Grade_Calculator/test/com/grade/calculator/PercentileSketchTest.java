@@ -0,0 +1,57 @@
+package com.grade.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Sketch percentiles stay within half a bin of the exact ones, merged or not
+class PercentileSketchTest {
+    private static final double[] PERCENTILES = {1, 10, 25, 50, 75, 90, 99, 100};
+
+    @Test
+    void percentilesAreWithinHalfABinOfExact() {
+        Random random = new Random(3);
+        double[] values = new double[20_000];
+        PercentileSketch whole = new PercentileSketch();
+        PercentileSketch first = new PercentileSketch();
+        PercentileSketch second = new PercentileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(401) / 4.0; // Averages of four whole marks
+            whole.add(values[i]);
+            (i % 3 == 0 ? first : second).add(values[i]);
+        }
+        first.merge(second);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double percentile : PERCENTILES) {
+            double exact = sorted[(int) Math.max(0, Math.ceil(percentile / 100 * sorted.length) - 1)];
+            assertEquals(exact, whole.getPercentile(percentile), 0.05 + 1e-9, "p" + percentile);
+            assertEquals(whole.getPercentile(percentile), first.getPercentile(percentile), 0.0, "merged p" + percentile);
+        }
+        assertEquals(values.length, first.getCount());
+    }
+
+    @Test
+    void outOfRangeValuesCountAtTheNearestEnd() {
+        PercentileSketch sketch = new PercentileSketch();
+        sketch.add(-20);
+        sketch.add(50);
+        sketch.add(130);
+        sketch.add(Double.NaN);
+
+        assertEquals(3, sketch.getCount());
+        assertEquals(0, sketch.getPercentile(10), 0.0);
+        assertEquals(50, sketch.getPercentile(50), 0.0);
+        assertEquals(100, sketch.getPercentile(100), 0.0);
+    }
+
+    @Test
+    void emptySketchHasNoPercentiles() {
+        assertTrue(Double.isNaN(new PercentileSketch().getPercentile(50)));
+    }
+}
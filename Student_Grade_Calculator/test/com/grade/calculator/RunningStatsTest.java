@@ -0,0 +1,81 @@
+package com.grade.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Streaming and merged statistics against a plain two-pass computation over every value
+class RunningStatsTest {
+
+    @Test
+    void mergedWorkersMatchTheWholeSet() {
+        Random random = new Random(11);
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e6 + random.nextGaussian() * 15; // A large offset is where summing squares goes wrong
+        }
+
+        // Uneven slices, including an empty one, as parallel batches would produce
+        int[] cuts = {0, 1, 1, 37, 4_000, 9_999, values.length};
+        RunningStats merged = new RunningStats();
+        for (int c = 0; c + 1 < cuts.length; c++) {
+            RunningStats worker = new RunningStats();
+            for (int i = cuts[c]; i < cuts[c + 1]; i++) {
+                worker.add(values[i]);
+            }
+            merged.merge(worker);
+        }
+
+        double mean = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            mean += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        mean /= values.length;
+        double variance = 0;
+        for (double value : values) {
+            variance += (value - mean) * (value - mean);
+        }
+        variance /= values.length;
+
+        assertEquals(values.length, merged.getCount());
+        assertEquals(mean, merged.getMean(), 1e-9);
+        assertEquals(variance, merged.getVariance(), variance * 1e-9);
+        assertEquals(min, merged.getMin(), 0.0);
+        assertEquals(max, merged.getMax(), 0.0);
+    }
+
+    @Test
+    void repeatedValueCountsLikeAddingItEachTime() {
+        RunningStats once = new RunningStats();
+        RunningStats repeated = new RunningStats();
+        for (int mark : new int[] {40, 55, 55, 55, 90}) {
+            once.add(mark);
+        }
+        repeated.add(40);
+        repeated.add(55, 3);
+        repeated.add(90, 1);
+        repeated.add(70, 0);
+
+        assertEquals(once.getCount(), repeated.getCount());
+        assertEquals(once.getMean(), repeated.getMean(), 1e-12);
+        assertEquals(once.getVariance(), repeated.getVariance(), 1e-9);
+        assertEquals(90, repeated.getMax(), 0.0);
+    }
+
+    @Test
+    void emptyStatisticsAreNotANumber() {
+        RunningStats stats = new RunningStats();
+        stats.merge(new RunningStats());
+        assertEquals(0, stats.getCount());
+        assertTrue(Double.isNaN(stats.getMean()));
+        assertTrue(Double.isNaN(stats.getVariance()));
+        assertTrue(Double.isNaN(stats.getMin()));
+    }
+}